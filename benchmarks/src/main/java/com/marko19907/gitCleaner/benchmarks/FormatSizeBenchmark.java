@@ -0,0 +1,41 @@
+package com.marko19907.gitCleaner.benchmarks;
+
+import com.marko19907.gitCleaner.utilities.Utilities;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the size formatting used by every report line.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class FormatSizeBenchmark {
+
+    /**
+     * The size to format, from bytes up to terabytes.
+     */
+    @Param({"512", "19751349", "5497558138880"})
+    public long size;
+
+    /**
+     * Formats the size.
+     */
+    @Benchmark
+    public String formatSize() {
+        return Utilities.formatSize(this.size);
+    }
+}
@@ -0,0 +1,267 @@
+package com.marko19907.gitCleaner.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates a workspace of real local git projects to clean, using only the local git binary.
+ * Every project gets the same shape: a history of commits that keep rewriting the same files,
+ * split into the given number of packs, and the given number of unreachable loose objects on top.
+ * Rewriting the same files gives git deltas to find, so cleaning reclaims space like on a real checkout.
+ * The same parameters and seed always produce the same contents.
+ */
+public class GitWorkspace {
+
+    /**
+     * The configuration passed to every git command, so the host's settings do not change the result.
+     */
+    private static final List<String> GIT_CONFIG = List.of(
+            "-c", "user.name=Benchmark",
+            "-c", "user.email=benchmark@localhost",
+            "-c", "gc.auto=0",
+            "-c", "maintenance.auto=false",
+            "-c", "commit.gpgSign=false",
+            "-c", "core.autocrlf=false",
+            "-c", "init.defaultBranch=main"
+    );
+
+    /**
+     * The number of tracked files in every project.
+     */
+    private static final int TRACKED_FILES = 32;
+
+    /**
+     * The number of git projects.
+     */
+    private final int repositories;
+
+    /**
+     * The number of commits in the history of every project.
+     */
+    private final int commits;
+
+    /**
+     * The number of files rewritten by every commit.
+     */
+    private final int filesPerCommit;
+
+    /**
+     * The size of every tracked file in bytes.
+     */
+    private final int fileSize;
+
+    /**
+     * The number of unreachable loose objects in every project.
+     */
+    private final int looseObjects;
+
+    /**
+     * The number of packs the history of every project is split into, 0 leaves the history loose.
+     */
+    private final int packs;
+
+    /**
+     * The seed of the file contents.
+     */
+    private final long seed;
+
+    /**
+     * The git executable.
+     */
+    private String gitExecutable;
+
+    /**
+     * Constructor for GitWorkspace objects.
+     * @param repositories   The number of git projects, positive
+     * @param commits        The number of commits of every project, positive
+     * @param filesPerCommit The number of files rewritten by every commit, positive
+     * @param fileSize       The size of every tracked file in bytes, positive
+     * @param looseObjects   The number of unreachable loose objects of every project, not negative
+     * @param packs          The number of packs of every project, between 0 and the number of commits
+     * @param seed           The seed of the file contents
+     * @throws IllegalArgumentException If one of the parameters is out of range
+     */
+    public GitWorkspace(int repositories, int commits, int filesPerCommit, int fileSize, int looseObjects, int packs,
+                        long seed) {
+        if (repositories <= 0 || commits <= 0 || filesPerCommit <= 0 || fileSize <= 0) {
+            throw new IllegalArgumentException("The workspace parameters must be positive!");
+        }
+        if (looseObjects < 0) {
+            throw new IllegalArgumentException("The number of loose objects can not be negative!");
+        }
+        if (packs < 0 || packs > commits) {
+            throw new IllegalArgumentException("The number of packs must be between 0 and the number of commits!");
+        }
+        this.repositories = repositories;
+        this.commits = commits;
+        this.filesPerCommit = Math.min(filesPerCommit, TRACKED_FILES);
+        this.fileSize = fileSize;
+        this.looseObjects = looseObjects;
+        this.packs = packs;
+        this.seed = seed;
+        this.gitExecutable = "git";
+    }
+
+    /**
+     * Sets the git executable used to build the projects.
+     * @param gitExecutable The git executable, a name on the PATH or an absolute path
+     */
+    public void setGitExecutable(String gitExecutable) {
+        if (gitExecutable == null || gitExecutable.isBlank()) {
+            throw new IllegalArgumentException("The given git executable can not be null or blank!");
+        }
+        this.gitExecutable = gitExecutable;
+    }
+
+    /**
+     * Returns the number of git projects.
+     * @return The number of git projects
+     */
+    public int getRepositories() {
+        return this.repositories;
+    }
+
+    /**
+     * Generates the projects below the given root directory, named repo0, repo1 and so on.
+     * @param root The root directory, created if needed
+     * @throws IOException If a file could not be written or a git command failed
+     */
+    public void generate(Path root) throws IOException {
+        Files.createDirectories(root);
+        for (int i = 0; i < this.repositories; i++) {
+            this.generateRepository(root.resolve("repo" + i), new Random(this.seed + i));
+        }
+    }
+
+    /**
+     * Generates a single project.
+     */
+    private void generateRepository(Path repository, Random random) throws IOException {
+        Files.createDirectories(repository);
+        this.git(repository, "init", "-q");
+
+        final byte[][] contents = new byte[TRACKED_FILES][];
+        for (int i = 0; i < TRACKED_FILES; i++) {
+            contents[i] = this.text(random, this.fileSize);
+        }
+
+        final int commitsPerPack = this.packs == 0 ? Integer.MAX_VALUE : this.commits / this.packs;
+        int packed = 0;
+        for (int commit = 0; commit < this.commits; commit++) {
+            for (int i = 0; i < this.filesPerCommit; i++) {
+                final int file = commit == 0 ? i : random.nextInt(TRACKED_FILES);
+                this.rewrite(contents[file], random);
+            }
+            // Unchanged files are written with the same content, git sees no change in them
+            for (int i = 0; i < TRACKED_FILES; i++) {
+                Files.write(repository.resolve("file" + i + ".txt"), contents[i]);
+            }
+            this.git(repository, "add", "-A");
+            this.git(repository, "commit", "-q", "-m", "Commit " + commit);
+
+            // Every repack without -a packs only the objects that are still loose, one more pack each time
+            if ((commit + 1) % commitsPerPack == 0 && packed < this.packs) {
+                this.git(repository, "repack", "-q");
+                packed++;
+            }
+        }
+
+        this.writeLooseObjects(repository, random);
+    }
+
+    /**
+     * Writes the configured number of unreachable loose objects into the given project with a single git process.
+     */
+    private void writeLooseObjects(Path repository, Random random) throws IOException {
+        if (this.looseObjects == 0) {
+            return;
+        }
+        final Path scratch = Files.createTempDirectory("gitCleaner-loose");
+        try {
+            final StringBuilder paths = new StringBuilder();
+            for (int i = 0; i < this.looseObjects; i++) {
+                final Path blob = scratch.resolve("blob" + i);
+                Files.write(blob, this.text(random, Math.max(64, this.fileSize / 8)));
+                paths.append(blob.toAbsolutePath()).append('\n');
+            }
+            final Path input = scratch.resolve("paths");
+            Files.writeString(input, paths.toString());
+            this.gitWithInput(repository, input, "hash-object", "-w", "--stdin-paths");
+        }
+        finally {
+            SyntheticTree.delete(scratch);
+        }
+    }
+
+    /**
+     * Replaces a random line sized stretch of the given content, so consecutive versions delta well.
+     */
+    private void rewrite(byte[] content, Random random) {
+        final int length = Math.min(content.length, 64);
+        final int offset = random.nextInt(content.length - length + 1);
+        final byte[] replacement = this.text(random, length);
+        System.arraycopy(replacement, 0, content, offset, length);
+    }
+
+    /**
+     * Returns random printable text of the given length, broken into lines.
+     */
+    private byte[] text(Random random, int length) {
+        final byte[] text = new byte[length];
+        for (int i = 0; i < length; i++) {
+            text[i] = (i % 64 == 63) ? (byte) '\n' : (byte) ('a' + random.nextInt(26));
+        }
+        return text;
+    }
+
+    /**
+     * Runs a git command in the given project.
+     */
+    private void git(Path repository, String... arguments) throws IOException {
+        this.gitWithInput(repository, null, arguments);
+    }
+
+    /**
+     * Runs a git command in the given project, reading its standard input from the given file.
+     * @param input The file read as the standard input of git, null for none
+     * @throws IOException If git could not be started or failed
+     */
+    private void gitWithInput(Path repository, Path input, String... arguments) throws IOException {
+        final List<String> command = new ArrayList<>();
+        command.add(this.gitExecutable);
+        command.addAll(GIT_CONFIG);
+        command.addAll(List.of(arguments));
+
+        final ProcessBuilder builder = new ProcessBuilder(command)
+                .directory(repository.toFile())
+                .redirectErrorStream(true);
+        if (input != null) {
+            builder.redirectInput(input.toFile());
+        }
+        final Process process = builder.start();
+        process.getOutputStream().close();
+
+        final String output;
+        try (InputStream stream = process.getInputStream()) {
+            output = new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        try {
+            final int exitCode = process.waitFor();
+            if (exitCode != 0) {
+                throw new IOException("git " + String.join(" ", arguments) + " failed in " + repository
+                        + " with exit code " + exitCode + ": " + output.strip());
+            }
+        }
+        catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while running git in " + repository, e);
+        }
+    }
+}
@@ -0,0 +1,335 @@
+package com.marko19907.gitCleaner.benchmarks;
+
+import com.marko19907.gitCleaner.model.CleaningReport;
+import com.marko19907.gitCleaner.model.CleaningResult;
+import com.marko19907.gitCleaner.model.GitCleaner;
+import com.marko19907.gitCleaner.model.MaintenancePolicy;
+import com.marko19907.gitCleaner.model.MaintenanceTier;
+import com.marko19907.gitCleaner.model.TieredMaintenancePolicy;
+import com.marko19907.gitCleaner.utilities.Utilities;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs the whole discover, clean and report pipeline on a generated git workspace and prints
+ * repositories per minute, bytes reclaimed per CPU-second and peak memory.
+ * Unlike the JMH benchmarks every run starts real git processes, so it is run on its own:
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar com.marko19907.gitCleaner.benchmarks.PipelineHarness --repos 50
+ * </pre>
+ * CPU time includes the git processes, read from /proc/self/stat, and memory is read from /proc,
+ * so on systems without /proc those numbers are reported as n/a.
+ */
+public class PipelineHarness {
+
+    /**
+     * The usage text.
+     */
+    private static final String USAGE = String.join("\n",
+            "Usage: PipelineHarness [options]",
+            "",
+            "Generates a workspace of local git projects, cleans it and prints the throughput.",
+            "",
+            "Options:",
+            "  --repos <n>             The number of git projects (default: 20)",
+            "  --commits <n>           The number of commits of every project (default: 50)",
+            "  --files-per-commit <n>  The number of files rewritten by every commit (default: 4)",
+            "  --file-size <bytes>     The size of every tracked file (default: 8192)",
+            "  --loose-objects <n>     The number of unreachable loose objects of every project (default: 200)",
+            "  --packs <n>             The number of packs the history is split into (default: 10)",
+            "  --seed <n>              The seed of the file contents (default: 42)",
+            "  --strategy <name>       light, incremental, standard, aggressive or tiered (default: aggressive)",
+            "  --parallelism <n>       The maximum number of git processes at once (default: number of cores)",
+            "  --git <path>            The git executable (default: git on the PATH)",
+            "  --workspace <dir>       Where to generate the workspace (default: a temporary directory)",
+            "  --keep                  Keep the workspace afterwards",
+            "  --help                  Print this help"
+    );
+
+    /**
+     * How often the resident memory of the JVM and its git processes is sampled, in milliseconds.
+     */
+    private static final long SAMPLE_MILLIS = 50;
+
+    /**
+     * The clock ticks per second of the CPU times in /proc, USER_HZ is 100 on practically every Linux.
+     */
+    private static final long CLOCK_TICKS = 100;
+
+    /**
+     * Default no-arg constructor.
+     */
+    private PipelineHarness() {
+    }
+
+    /**
+     * The main method.
+     * @param args The command line arguments
+     * @throws Exception If the workspace could not be generated or deleted
+     */
+    public static void main(String[] args) throws Exception {
+        int repos = 20;
+        int commits = 50;
+        int filesPerCommit = 4;
+        int fileSize = 8192;
+        int looseObjects = 200;
+        int packs = 10;
+        long seed = 42L;
+        MaintenancePolicy policy = null;
+        int parallelism = 0;
+        String git = GitCleaner.DEFAULT_GIT_EXECUTABLE;
+        Path workspace = null;
+        boolean keep = false;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--repos" -> repos = Integer.parseInt(args[++i]);
+                case "--commits" -> commits = Integer.parseInt(args[++i]);
+                case "--files-per-commit" -> filesPerCommit = Integer.parseInt(args[++i]);
+                case "--file-size" -> fileSize = Integer.parseInt(args[++i]);
+                case "--loose-objects" -> looseObjects = Integer.parseInt(args[++i]);
+                case "--packs" -> packs = Integer.parseInt(args[++i]);
+                case "--seed" -> seed = Long.parseLong(args[++i]);
+                case "--strategy" -> policy = args[++i].equalsIgnoreCase("tiered")
+                        ? new TieredMaintenancePolicy()
+                        : MaintenancePolicy.fixed(MaintenanceTier.fromName(args[i]));
+                case "--parallelism" -> parallelism = Integer.parseInt(args[++i]);
+                case "--git" -> git = args[++i];
+                case "--workspace" -> workspace = Paths.get(args[++i]);
+                case "--keep" -> keep = true;
+                default -> {
+                    System.out.println(USAGE);
+                    return;
+                }
+            }
+        }
+
+        final GitWorkspace generator = new GitWorkspace(repos, commits, filesPerCommit, fileSize, looseObjects, packs,
+                seed);
+        generator.setGitExecutable(git);
+        final Path root = workspace != null ? workspace : Files.createTempDirectory("gitCleaner-pipeline");
+
+        try {
+            System.out.println("Generating " + repos + " projects in " + root + " ...");
+            final long generationStart = System.nanoTime();
+            generator.generate(root);
+            System.out.println("Generated in " + millis(System.nanoTime() - generationStart) + " ms");
+
+            final GitCleaner cleaner = new GitCleaner(root.toFile());
+            if (policy != null) {
+                cleaner.setMaintenancePolicy(policy);
+            }
+            if (parallelism > 0) {
+                cleaner.setParallelism(parallelism);
+            }
+            cleaner.setGitExecutable(git);
+            // A listener keeps the cleaner from printing its progress to the console
+            cleaner.getEvents().subscribe(event -> { });
+
+            final Usage before = Usage.read();
+            final MemorySampler sampler = new MemorySampler();
+            sampler.start();
+
+            final long start = System.nanoTime();
+            cleaner.analyze();
+            final long discovered = System.nanoTime();
+            cleaner.run();
+            final long cleaned = System.nanoTime();
+            final CleaningReport report = cleaner.getReport();
+            final String text = report.toString();
+            final long reported = System.nanoTime();
+
+            sampler.interrupt();
+            sampler.join();
+            final Usage after = Usage.read();
+
+            print(report, text.length(), discovered - start, cleaned - discovered, reported - cleaned,
+                    reported - start, before, after, sampler.getPeak());
+        }
+        finally {
+            if (!keep) {
+                SyntheticTree.delete(root);
+            }
+        }
+    }
+
+    /**
+     * Prints the measured numbers.
+     */
+    private static void print(CleaningReport report, int reportLength, long discoveryNanos, long cleaningNanos,
+                              long reportNanos, long totalNanos, Usage before, Usage after, long peakRss) {
+        final List<CleaningResult> results = report.getResults();
+        final double minutes = totalNanos / 60e9;
+        final double jvmCpu = (after.jvmCpuNanos - before.jvmCpuNanos) / 1e9;
+        final double gitCpu = before.childTicks < 0 || after.childTicks < 0
+                ? -1 : (after.childTicks - before.childTicks) / (double) CLOCK_TICKS;
+
+        System.out.println();
+        System.out.println("Projects:               " + results.size()
+                + " (" + report.count(CleaningResult.Status.CLEANED) + " cleaned, "
+                + (report.count(CleaningResult.Status.FAILED) + report.count(CleaningResult.Status.TIMED_OUT))
+                + " failed)");
+        System.out.println("Discovery:              " + millis(discoveryNanos) + " ms");
+        System.out.println("Cleaning:               " + millis(cleaningNanos) + " ms");
+        System.out.println("Report:                 " + millis(reportNanos) + " ms (" + reportLength + " chars)");
+        System.out.println("Total:                  " + millis(totalNanos) + " ms");
+        System.out.println("Projects per minute:    " + format(results.size() / minutes));
+        System.out.println("Bytes reclaimed:        " + report.getBytesReclaimed()
+                + " (" + Utilities.formatSize(report.getBytesReclaimed()) + ")");
+        System.out.println("JVM CPU:                " + format(jvmCpu) + " s");
+        System.out.println("git CPU:                " + (gitCpu < 0 ? "n/a" : format(gitCpu) + " s"));
+        System.out.println("Reclaimed per CPU-sec:  " + (gitCpu < 0
+                ? "n/a" : Utilities.formatSize((long) (report.getBytesReclaimed() / (jvmCpu + gitCpu)))));
+        System.out.println("Peak RSS (JVM):         "
+                + (after.peakRss < 0 ? "n/a" : Utilities.formatSize(after.peakRss)));
+        System.out.println("Peak RSS (JVM + git):   " + (peakRss <= 0 ? "n/a" : Utilities.formatSize(peakRss)));
+    }
+
+    /**
+     * Returns the given nanoseconds as whole milliseconds.
+     */
+    private static long millis(long nanos) {
+        return nanos / 1_000_000;
+    }
+
+    /**
+     * Formats the given number with two decimals.
+     */
+    private static String format(double number) {
+        return String.format(Locale.ROOT, "%.2f", number);
+    }
+
+    /**
+     * Reads the given field of a /proc status file in bytes, or -1 if it can not be read.
+     */
+    private static long readStatusBytes(Path status, String field) {
+        try {
+            for (String line : Files.readAllLines(status, StandardCharsets.UTF_8)) {
+                if (line.startsWith(field + ":")) {
+                    // The values are in kB, like "VmHWM:	  123456 kB"
+                    final String value = line.substring(field.length() + 1).replace("kB", "").strip();
+                    return Long.parseLong(value) * 1024L;
+                }
+            }
+        }
+        catch (IOException | NumberFormatException e) {
+            // Not on Linux, or the process is already gone
+        }
+        return -1;
+    }
+
+    /**
+     * The resource usage of this process at one point in time.
+     */
+    private static class Usage {
+
+        /**
+         * The CPU time of the JVM in nanoseconds.
+         */
+        private final long jvmCpuNanos;
+
+        /**
+         * The CPU time of the finished child processes in clock ticks, -1 if unknown.
+         */
+        private final long childTicks;
+
+        /**
+         * The peak resident memory of the JVM in bytes, -1 if unknown.
+         */
+        private final long peakRss;
+
+        /**
+         * Constructor for Usage objects.
+         */
+        private Usage(long jvmCpuNanos, long childTicks, long peakRss) {
+            this.jvmCpuNanos = jvmCpuNanos;
+            this.childTicks = childTicks;
+            this.peakRss = peakRss;
+        }
+
+        /**
+         * Reads the current resource usage.
+         */
+        private static Usage read() {
+            final com.sun.management.OperatingSystemMXBean os =
+                    (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+            return new Usage(os.getProcessCpuTime(), readChildTicks(),
+                    readStatusBytes(Paths.get("/proc/self/status"), "VmHWM"));
+        }
+
+        /**
+         * Reads cutime + cstime of /proc/self/stat, the CPU time of the children that were waited for.
+         */
+        private static long readChildTicks() {
+            try {
+                final String stat = Files.readString(Paths.get("/proc/self/stat"), StandardCharsets.UTF_8);
+                // The command name may contain spaces, the fields after it start with the state, field 3
+                final String[] fields = stat.substring(stat.lastIndexOf(')') + 2).split(" ");
+                return Long.parseLong(fields[13]) + Long.parseLong(fields[14]);
+            }
+            catch (IOException | RuntimeException e) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Samples the resident memory of the JVM and all its git processes together and keeps the peak.
+     * Sampling misses short spikes, but the git processes that dominate live for seconds.
+     */
+    private static class MemorySampler extends Thread {
+
+        /**
+         * The highest sampled total in bytes.
+         */
+        private final AtomicLong peak;
+
+        /**
+         * Constructor for MemorySampler objects.
+         */
+        private MemorySampler() {
+            super("memory-sampler");
+            this.setDaemon(true);
+            this.peak = new AtomicLong(0);
+        }
+
+        @Override
+        public void run() {
+            while (!this.isInterrupted()) {
+                final long total = rss(ProcessHandle.current()) + ProcessHandle.current().descendants()
+                        .mapToLong(MemorySampler::rss)
+                        .sum();
+                this.peak.accumulateAndGet(total, Math::max);
+                try {
+                    Thread.sleep(SAMPLE_MILLIS);
+                }
+                catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Returns the resident memory of the given process, 0 if it can not be read.
+         */
+        private static long rss(ProcessHandle process) {
+            return Math.max(0, readStatusBytes(Paths.get("/proc", Long.toString(process.pid()), "status"), "VmRSS"));
+        }
+
+        /**
+         * Returns the highest sampled total.
+         * @return The peak resident memory in bytes, 0 if nothing could be sampled
+         */
+        private long getPeak() {
+            return this.peak.get();
+        }
+    }
+}
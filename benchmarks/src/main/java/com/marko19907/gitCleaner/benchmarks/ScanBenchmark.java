@@ -0,0 +1,131 @@
+package com.marko19907.gitCleaner.benchmarks;
+
+import com.marko19907.gitCleaner.model.GitFolderSearch;
+import com.marko19907.gitCleaner.model.ScanOptions;
+import com.marko19907.gitCleaner.model.ScanResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks discovery and sizing on a generated synthetic tree.
+ * The tree is generated once per trial, so after the first warmup iteration it is served from the page cache,
+ * which measures the engine rather than the disk.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ScanBenchmark {
+
+    /**
+     * The number of levels below the root.
+     */
+    @Param({"4"})
+    public int depth;
+
+    /**
+     * The number of subdirectories of every directory.
+     */
+    @Param({"6"})
+    public int fanOut;
+
+    /**
+     * The share of directories that are git projects.
+     */
+    @Param({"0.1"})
+    public double repoDensity;
+
+    /**
+     * The number of regular files in every directory.
+     */
+    @Param({"20"})
+    public int filesPerDirectory;
+
+    /**
+     * The root of the generated tree.
+     */
+    private Path root;
+
+    /**
+     * A git project of the generated tree, used to measure a single .git folder.
+     */
+    private File project;
+
+    /**
+     * Generates the tree.
+     * @throws IOException If the tree could not be written
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        this.root = Files.createTempDirectory("gitCleaner-bench");
+        new SyntheticTree(this.depth, this.fanOut, this.repoDensity, this.filesPerDirectory, 512, 42L)
+                .generate(this.root);
+
+        final Set<File> projects = new GitFolderSearch().getGitFolders(this.root.toString());
+        this.project = projects.isEmpty() ? null : projects.iterator().next();
+    }
+
+    /**
+     * Deletes the tree.
+     * @throws IOException If the tree could not be deleted
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        SyntheticTree.delete(this.root);
+    }
+
+    /**
+     * Discovery only, as used to list the git projects.
+     */
+    @Benchmark
+    public Set<File> getGitFolders() {
+        return new GitFolderSearch().getGitFolders(this.root.toString());
+    }
+
+    /**
+     * The full single-pass scan with the default, pruned options.
+     */
+    @Benchmark
+    public ScanResult scanPruned() {
+        return new GitFolderSearch().scan(this.root.toFile());
+    }
+
+    /**
+     * The full single-pass scan of the whole tree, what the total and .git folder sizes cost.
+     */
+    @Benchmark
+    public ScanResult scanFullTree() {
+        final ScanOptions options = new ScanOptions();
+        options.setNestedRepositories(true);
+        return new GitFolderSearch(options).scan(this.root.toFile());
+    }
+
+    /**
+     * Measuring a single .git folder again, as done after cleaning it.
+     * @throws IOException If the .git folder could not be read
+     */
+    @Benchmark
+    public long measureGitFolder() throws IOException {
+        return this.project == null ? 0L : GitFolderSearch.measureGitFolder(this.project);
+    }
+}
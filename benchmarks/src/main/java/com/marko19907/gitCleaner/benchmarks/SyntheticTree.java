@@ -0,0 +1,171 @@
+package com.marko19907.gitCleaner.benchmarks;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Random;
+
+/**
+ * Generates a synthetic directory tree to scan, shaped like a workspace full of checkouts.
+ * Every directory has the same fan-out down to the given depth, a share of them are git projects
+ * with a .git folder holding fan-out object folders, packs and loose objects.
+ * No git is needed, discovery and sizing only look at the file system.
+ * The same parameters and seed always produce the same tree.
+ */
+public class SyntheticTree {
+
+    /**
+     * The number of loose object fan-out folders in each generated .git folder.
+     */
+    private static final int OBJECT_FOLDERS = 16;
+
+    /**
+     * The number of levels below the root.
+     */
+    private final int depth;
+
+    /**
+     * The number of subdirectories of every directory above the deepest level.
+     */
+    private final int fanOut;
+
+    /**
+     * The share of directories, between 0 and 1, that are git projects.
+     */
+    private final double repoDensity;
+
+    /**
+     * The number of regular files in every directory.
+     */
+    private final int filesPerDirectory;
+
+    /**
+     * The size of every regular file in bytes.
+     */
+    private final int fileSize;
+
+    /**
+     * The random number generator that decides which directories are git projects.
+     */
+    private final Random random;
+
+    /**
+     * The number of git projects generated so far.
+     */
+    private int repositories;
+
+    /**
+     * Constructor for SyntheticTree objects.
+     * @param depth             The number of levels below the root, not negative
+     * @param fanOut            The number of subdirectories of every directory, not negative
+     * @param repoDensity       The share of directories that are git projects, between 0 and 1
+     * @param filesPerDirectory The number of regular files in every directory, not negative
+     * @param fileSize          The size of every regular file in bytes, not negative
+     * @param seed              The seed of the random number generator
+     * @throws IllegalArgumentException If one of the parameters is out of range
+     */
+    public SyntheticTree(int depth, int fanOut, double repoDensity, int filesPerDirectory, int fileSize, long seed) {
+        if (depth < 0 || fanOut < 0 || filesPerDirectory < 0 || fileSize < 0) {
+            throw new IllegalArgumentException("The tree parameters can not be negative!");
+        }
+        if (repoDensity < 0 || repoDensity > 1) {
+            throw new IllegalArgumentException("The repository density must be between 0 and 1!");
+        }
+        this.depth = depth;
+        this.fanOut = fanOut;
+        this.repoDensity = repoDensity;
+        this.filesPerDirectory = filesPerDirectory;
+        this.fileSize = fileSize;
+        this.random = new Random(seed);
+        this.repositories = 0;
+    }
+
+    /**
+     * Generates the tree below the given root directory.
+     * @param root The root directory, created if needed
+     * @return The number of generated git projects
+     * @throws IOException If the tree could not be written
+     */
+    public int generate(Path root) throws IOException {
+        this.repositories = 0;
+        this.generate(root, 0);
+        return this.repositories;
+    }
+
+    /**
+     * Generates one directory and everything below it.
+     */
+    private void generate(Path directory, int level) throws IOException {
+        Files.createDirectories(directory);
+        this.writeFiles(directory, "file", this.filesPerDirectory);
+
+        if (level > 0 && this.random.nextDouble() < this.repoDensity) {
+            this.generateGitFolder(directory.resolve(".git"));
+            this.repositories++;
+        }
+
+        if (level < this.depth) {
+            for (int i = 0; i < this.fanOut; i++) {
+                this.generate(directory.resolve("dir" + i), level + 1);
+            }
+        }
+    }
+
+    /**
+     * Generates a .git folder with loose objects and a pack.
+     */
+    private void generateGitFolder(Path gitFolder) throws IOException {
+        Files.createDirectories(gitFolder.resolve("refs").resolve("heads"));
+        Files.writeString(gitFolder.resolve("HEAD"), "ref: refs/heads/main\n");
+
+        final Path objects = gitFolder.resolve("objects");
+        for (int i = 0; i < OBJECT_FOLDERS; i++) {
+            final Path fanOutFolder = objects.resolve(String.format("%02x", i));
+            Files.createDirectories(fanOutFolder);
+            this.writeFiles(fanOutFolder, "object", Math.max(1, this.filesPerDirectory / 2));
+        }
+
+        final Path pack = objects.resolve("pack");
+        Files.createDirectories(pack);
+        this.writeFiles(pack, "pack-", 1);
+        Files.createDirectories(objects.resolve("info"));
+        Files.writeString(objects.resolve("info").resolve("packs"), "P pack-0.pack\n");
+    }
+
+    /**
+     * Writes the given number of files of the configured size into the given directory.
+     */
+    private void writeFiles(Path directory, String prefix, int count) throws IOException {
+        final byte[] content = new byte[this.fileSize];
+        for (int i = 0; i < count; i++) {
+            Files.write(directory.resolve(prefix + i), content);
+        }
+    }
+
+    /**
+     * Deletes the given directory and everything in it.
+     * @param root The directory to delete
+     * @throws IOException If something could not be deleted
+     */
+    public static void delete(Path root) throws IOException {
+        if (!Files.exists(root)) {
+            return;
+        }
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path directory, IOException exc) throws IOException {
+                Files.delete(directory);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
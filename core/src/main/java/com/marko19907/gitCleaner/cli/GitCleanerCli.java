@@ -0,0 +1,475 @@
+package com.marko19907.gitCleaner.cli;
+
+import com.marko19907.gitCleaner.metrics.CleanerMetrics;
+import com.marko19907.gitCleaner.metrics.PrometheusExporter;
+import com.marko19907.gitCleaner.model.CancellationToken;
+import com.marko19907.gitCleaner.model.CleaningReport;
+import com.marko19907.gitCleaner.model.CleaningResult;
+import com.marko19907.gitCleaner.model.GitCleaner;
+import com.marko19907.gitCleaner.model.MaintenancePolicy;
+import com.marko19907.gitCleaner.model.MaintenanceTier;
+import com.marko19907.gitCleaner.model.ProgressEvent;
+import com.marko19907.gitCleaner.model.ScanOptions;
+import com.marko19907.gitCleaner.model.SizeMode;
+import com.marko19907.gitCleaner.model.SkipThresholds;
+import com.marko19907.gitCleaner.model.TieredMaintenancePolicy;
+import com.marko19907.gitCleaner.utilities.CleaningInterruptedException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The headless command line entry point, cleans one or more directories without a display.
+ * Only the model is used, so no JavaFX class is ever loaded.
+ * <p>
+ * The report goes to standard output, progress and errors go to standard error,
+ * so the output stays machine-readable when JSON or CSV is requested.
+ */
+public class GitCleanerCli {
+
+    /**
+     * The exit code when every folder was cleaned, skipped or planned.
+     */
+    public static final int EXIT_OK = 0;
+
+    /**
+     * The exit code when at least one git process failed or timed out.
+     */
+    public static final int EXIT_FAILURES = 1;
+
+    /**
+     * The exit code when the arguments are invalid.
+     */
+    public static final int EXIT_USAGE = 2;
+
+    /**
+     * How often the metrics file is rewritten while cleaning, in seconds.
+     */
+    private static final long METRICS_INTERVAL_SECONDS = 15;
+
+    /**
+     * How long the shutdown hook waits for a cancelled run to kill its git processes and return, in seconds.
+     */
+    private static final long SHUTDOWN_WAIT_SECONDS = 30;
+
+    /**
+     * The usage text.
+     */
+    private static final String USAGE = String.join("\n",
+            "Usage: gitCleaner [options] <directory>...",
+            "",
+            "Runs git maintenance on every git project found in the given directories.",
+            "The directories are cleaned in a single run, overlapping and symlinked ones are only scanned once.",
+            "",
+            "Options:",
+            "  --strategy <name>       light, incremental, standard, aggressive or tiered (default: aggressive)",
+            "  --parallelism <n>       The maximum number of git processes at once (default: number of cores)",
+            "  --timeout <minutes>     The maximum run time of a single git process (default: 60)",
+            "  --git <path>            The git executable (default: git on the PATH)",
+            "  --skip-optimal          Skip projects that are already optimally packed",
+            "  --nested                Also search the working trees of projects for nested projects",
+            "  --skip-dir <glob>       Never enter directories matching the glob, may be repeated",
+            "  --follow-links          Follow symbolic links, every directory is still scanned only once",
+            "  --one-file-system       Do not cross mount points, keeps bind mounts and network shares out",
+            "  --roots-file <file>     Also clean the directories listed in the file, one per line, # for comments",
+            "  --allocated             Report the space allocated on disk instead of the apparent file sizes",
+            "  --dry-run               Only report what would be done, git is not started",
+            "  --resume                Skip the projects an interrupted earlier run already finished",
+            "  --json                  Print the report as JSON",
+            "  --csv                   Print the per-project results as CSV",
+            "  --quiet                 Do not print progress",
+            "  --metrics <file>        Write the metrics in the Prometheus text format to the file while cleaning",
+            "  --help                  Print this help"
+    );
+
+    /**
+     * The output formats of the report.
+     */
+    private enum Format {
+        TEXT, JSON, CSV
+    }
+
+    /**
+     * The directories to clean.
+     */
+    private final List<File> directories;
+
+    /**
+     * The options used to scan the directories.
+     */
+    private final ScanOptions scanOptions;
+
+    /**
+     * The maintenance policy, null for the cleaner's default.
+     */
+    private MaintenancePolicy policy;
+
+    /**
+     * The maximum number of git processes at once, 0 for the cleaner's default.
+     */
+    private int parallelism;
+
+    /**
+     * The maximum run time of a single git process, null for the cleaner's default.
+     */
+    private Duration timeout;
+
+    /**
+     * The git executable, null for the cleaner's default.
+     */
+    private String gitExecutable;
+
+    /**
+     * True if already optimal projects are skipped.
+     */
+    private boolean skipOptimal;
+
+    /**
+     * True if git is not started.
+     */
+    private boolean dryRun;
+
+    /**
+     * True if an interrupted earlier run is resumed.
+     */
+    private boolean resume;
+
+    /**
+     * True if no progress is printed.
+     */
+    private boolean quiet;
+
+    /**
+     * The output format of the report.
+     */
+    private Format format;
+
+    /**
+     * The file the metrics are written to, null for none.
+     */
+    private Path metricsFile;
+
+    /**
+     * The metrics shared by all cleaners, also published through JMX.
+     */
+    private final CleanerMetrics metrics;
+
+    /**
+     * Default no-arg constructor.
+     */
+    private GitCleanerCli() {
+        this.directories = new ArrayList<>();
+        this.scanOptions = new ScanOptions();
+        this.policy = null;
+        this.parallelism = 0;
+        this.timeout = null;
+        this.gitExecutable = null;
+        this.skipOptimal = false;
+        this.dryRun = false;
+        this.resume = false;
+        this.quiet = false;
+        this.format = Format.TEXT;
+        this.metricsFile = null;
+        this.metrics = new CleanerMetrics();
+    }
+
+    /**
+     * The main method.
+     * @param args The command line arguments
+     */
+    public static void main(String[] args) {
+        System.exit(run(args, System.out, System.err));
+    }
+
+    /**
+     * Parses the arguments, runs the cleaner on every directory and prints the combined report.
+     * @param args The command line arguments
+     * @param out  The stream the report is printed to
+     * @param err  The stream progress and errors are printed to
+     * @return The exit code
+     */
+    public static int run(String[] args, PrintStream out, PrintStream err) {
+        final GitCleanerCli cli = new GitCleanerCli();
+        try {
+            if (!cli.parse(args)) {
+                out.println(USAGE);
+                return EXIT_OK;
+            }
+        }
+        catch (IllegalArgumentException e) {
+            err.println("Error: " + e.getMessage());
+            err.println();
+            err.println(USAGE);
+            return EXIT_USAGE;
+        }
+
+        return cli.clean(out, err);
+    }
+
+    /**
+     * Parses the given arguments into this object.
+     * @param args The command line arguments
+     * @return False if only the help was asked for
+     * @throws IllegalArgumentException If the arguments are invalid
+     */
+    private boolean parse(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            final String arg = args[i];
+            switch (arg) {
+                case "--help", "-h" -> {
+                    return false;
+                }
+                case "--strategy" -> this.policy = parsePolicy(value(args, ++i, arg));
+                case "--parallelism" -> this.parallelism = parsePositive(value(args, ++i, arg), arg);
+                case "--timeout" -> this.timeout = Duration.ofMinutes(parsePositive(value(args, ++i, arg), arg));
+                case "--git" -> this.gitExecutable = value(args, ++i, arg);
+                case "--skip-optimal" -> this.skipOptimal = true;
+                case "--nested" -> this.scanOptions.setNestedRepositories(true);
+                case "--skip-dir" -> this.scanOptions.addSkipPattern(value(args, ++i, arg));
+                case "--follow-links" -> this.scanOptions.setFollowLinks(true);
+                case "--one-file-system" -> this.scanOptions.setSameFileSystem(true);
+                case "--allocated" -> this.scanOptions.setSizeMode(SizeMode.ALLOCATED);
+                case "--dry-run" -> this.dryRun = true;
+                case "--resume" -> this.resume = true;
+                case "--json" -> this.format = Format.JSON;
+                case "--csv" -> this.format = Format.CSV;
+                case "--quiet", "-q" -> this.quiet = true;
+                case "--metrics" -> this.metricsFile = Paths.get(value(args, ++i, arg));
+                case "--roots-file" -> this.readRootsFile(Paths.get(value(args, ++i, arg)));
+                default -> {
+                    if (arg.startsWith("--")) {
+                        throw new IllegalArgumentException("Unknown option: " + arg);
+                    }
+                    this.addDirectory(arg);
+                }
+            }
+        }
+
+        if (this.directories.isEmpty()) {
+            throw new IllegalArgumentException("No directory given!");
+        }
+        return true;
+    }
+
+    /**
+     * Adds the given directory to the directories to clean.
+     * @param path The path of the directory
+     * @throws IllegalArgumentException If the path is not a directory
+     */
+    private void addDirectory(String path) {
+        final File directory = new File(path);
+        if (!directory.isDirectory()) {
+            throw new IllegalArgumentException("Not a directory: " + path);
+        }
+        this.directories.add(directory);
+    }
+
+    /**
+     * Adds the directories listed in the given file, one per line. Blank lines and lines starting with #
+     * are ignored, so a host can keep its list of source volumes as a commented watch list.
+     * @param rootsFile The file to read
+     * @throws IllegalArgumentException If the file can not be read or lists something that is not a directory
+     */
+    private void readRootsFile(Path rootsFile) {
+        final List<String> lines;
+        try {
+            lines = Files.readAllLines(rootsFile);
+        }
+        catch (IOException e) {
+            throw new IllegalArgumentException("Could not read the roots file: " + rootsFile);
+        }
+
+        for (String line : lines) {
+            final String path = line.strip();
+            if (!path.isEmpty() && !path.startsWith("#")) {
+                this.addDirectory(path);
+            }
+        }
+    }
+
+    /**
+     * Publishes the metrics through JMX, keeps the metrics file up to date and cleans every directory.
+     * @param out The stream the report is printed to
+     * @param err The stream progress and errors are printed to
+     * @return The exit code
+     */
+    private int clean(PrintStream out, PrintStream err) {
+        this.metrics.register();
+        final ScheduledExecutorService metricsWriter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "metrics-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (this.metricsFile != null) {
+            metricsWriter.scheduleAtFixedRate(() -> this.writeMetrics(err),
+                    METRICS_INTERVAL_SECONDS, METRICS_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        }
+
+        try {
+            return this.cleanAll(out, err);
+        }
+        finally {
+            metricsWriter.shutdownNow();
+            this.writeMetrics(err);
+            CleanerMetrics.unregister();
+        }
+    }
+
+    /**
+     * Writes the metrics to the metrics file, if one was given.
+     * @param err The stream errors are printed to
+     */
+    private void writeMetrics(PrintStream err) {
+        if (this.metricsFile == null) {
+            return;
+        }
+        try {
+            PrometheusExporter.write(this.metrics, this.metricsFile);
+        }
+        catch (IOException e) {
+            err.println("Could not write the metrics: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Cleans every directory in a single run and prints the report.
+     * @param out The stream the report is printed to
+     * @param err The stream progress and errors are printed to
+     * @return The exit code
+     */
+    private int cleanAll(PrintStream out, PrintStream err) {
+        // One cleaner for all directories, so their volumes are scanned in parallel and shared subtrees once
+        final GitCleaner cleaner = new GitCleaner(this.directories, this.scanOptions);
+        this.configure(cleaner);
+        cleaner.getEvents().subscribe(ProgressEvent.RepositoryFinished.class, finished -> {
+            if (!this.quiet) {
+                err.println("Progress: " + finished.completed() + "/" + finished.total()
+                        + " (" + finished.result().folder().getPath() + ")");
+            }
+        });
+
+        // On SIGTERM or Ctrl+C the run is cancelled, so the running git processes are killed together with
+        // their children instead of being left behind, and the JVM only exits once the run has returned
+        final CancellationToken cancellation = new CancellationToken();
+        cleaner.setCancellationToken(cancellation);
+        final CountDownLatch runReturned = new CountDownLatch(1);
+        final Thread shutdownHook = new Thread(() -> {
+            cancellation.cancel();
+            try {
+                runReturned.await(SHUTDOWN_WAIT_SECONDS, TimeUnit.SECONDS);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "cleaning-shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+
+        try {
+            cleaner.run();
+        }
+        catch (CleaningInterruptedException e) {
+            err.println("Cleaning interrupted: " + e.getMessage());
+            return EXIT_FAILURES;
+        }
+        finally {
+            runReturned.countDown();
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            }
+            catch (IllegalStateException e) {
+                // The JVM is already shutting down, the hook is running and returns now
+            }
+        }
+
+        final CleaningReport report = cleaner.getReport();
+        switch (this.format) {
+            case JSON -> out.println(report.toJson());
+            case CSV -> out.print(report.toCsv());
+            default -> out.println(report);
+        }
+
+        boolean failures = false;
+        for (CleaningResult result : report.getResults()) {
+            if (result.status() == CleaningResult.Status.FAILED || result.status() == CleaningResult.Status.TIMED_OUT) {
+                err.println("Failed: " + result.folder().getAbsolutePath() + " (" + result.status() + ")");
+                failures = true;
+            }
+        }
+        return failures ? EXIT_FAILURES : EXIT_OK;
+    }
+
+    /**
+     * Applies the parsed options to the given cleaner.
+     * @param cleaner The cleaner to configure
+     */
+    private void configure(GitCleaner cleaner) {
+        if (this.policy != null) {
+            cleaner.setMaintenancePolicy(this.policy);
+        }
+        if (this.parallelism > 0) {
+            cleaner.setParallelism(this.parallelism);
+        }
+        if (this.timeout != null) {
+            cleaner.setTimeout(this.timeout);
+        }
+        if (this.gitExecutable != null) {
+            cleaner.setGitExecutable(this.gitExecutable);
+        }
+        if (this.skipOptimal) {
+            cleaner.setSkipThresholds(new SkipThresholds());
+        }
+        cleaner.setDryRun(this.dryRun);
+        cleaner.setResume(this.resume);
+        cleaner.setMetrics(this.metrics);
+    }
+
+    /**
+     * Returns the value following the option at the given index.
+     * @throws IllegalArgumentException If there is no value
+     */
+    private static String value(String[] args, int index, String option) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + option);
+        }
+        return args[index];
+    }
+
+    /**
+     * Parses the given positive number.
+     * @throws IllegalArgumentException If the value is not a positive number
+     */
+    private static int parsePositive(String value, String option) {
+        try {
+            final int number = Integer.parseInt(value);
+            if (number > 0) {
+                return number;
+            }
+        }
+        catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("Expected a positive number for " + option + ": " + value);
+    }
+
+    /**
+     * Parses the given strategy name into a policy, "tiered" picks the tier per project.
+     * @throws IllegalArgumentException If the name is unknown
+     */
+    private static MaintenancePolicy parsePolicy(String name) {
+        if (name.equalsIgnoreCase("tiered")) {
+            return new TieredMaintenancePolicy();
+        }
+        return MaintenancePolicy.fixed(MaintenanceTier.fromName(name));
+    }
+}
@@ -0,0 +1,414 @@
+package com.marko19907.gitCleaner.metrics;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects the metrics of scans and cleaning runs, safe for concurrent use.
+ * The counters are cumulative over every scan and run that reports to the same instance,
+ * the scan rates and latencies describe the running or last scan.
+ * <p>
+ * The hot paths only increment {@link LongAdder}s, so the scanning and cleaning threads never contend.
+ * The metrics can be published through JMX with {@link #register()}
+ * and dumped in the Prometheus text format with {@link PrometheusExporter}.
+ */
+public class CleanerMetrics implements CleanerMetricsMXBean {
+
+    /**
+     * The JMX name the metrics are registered under.
+     */
+    public static final String OBJECT_NAME = "com.marko19907.gitCleaner:type=CleanerMetrics";
+
+    /**
+     * The number of directories listed.
+     */
+    private final LongAdder directoriesVisited;
+
+    /**
+     * The number of directories taken from the scan index.
+     */
+    private final LongAdder directoriesFromIndex;
+
+    /**
+     * The number of regular files visited.
+     */
+    private final LongAdder filesVisited;
+
+    /**
+     * The number of file attribute reads.
+     */
+    private final LongAdder statCalls;
+
+    /**
+     * The number of git projects found.
+     */
+    private final LongAdder gitFoldersFound;
+
+    /**
+     * The start of the running or last scan, from {@link System#nanoTime()}, 0 if no scan has started.
+     */
+    private volatile long scanStartNanos;
+
+    /**
+     * The end of the last scan, 0 while a scan is running.
+     */
+    private volatile long scanEndNanos;
+
+    /**
+     * When the running or last scan found its first git project, 0 if it has found none.
+     */
+    private volatile long firstGitFolderNanos;
+
+    /**
+     * The number of listed directories when the running or last scan started.
+     */
+    private volatile long directoriesAtScanStart;
+
+    /**
+     * The number of visited files when the running or last scan started.
+     */
+    private volatile long filesAtScanStart;
+
+    /**
+     * The number of git projects waiting for a worker.
+     */
+    private final AtomicInteger queueDepth;
+
+    /**
+     * The number of workers cleaning a git project.
+     */
+    private final AtomicInteger activeWorkers;
+
+    /**
+     * The number of running git processes.
+     */
+    private final AtomicInteger runningGitProcesses;
+
+    /**
+     * The number of failed or timed out git processes.
+     */
+    private final LongAdder failedGitProcesses;
+
+    /**
+     * The bytes reclaimed by the finished git processes.
+     */
+    private final LongAdder bytesReclaimed;
+
+    /**
+     * The durations of the finished git processes.
+     */
+    private final DurationHistogram gitDurations;
+
+    /**
+     * The git project with the slowest git process, guarded by the histogram.
+     */
+    private File slowestGitFolder;
+
+    /**
+     * The duration of the slowest git process in milliseconds, guarded by the histogram.
+     */
+    private long slowestGitMillis;
+
+    /**
+     * Default no-arg constructor.
+     */
+    public CleanerMetrics() {
+        this.directoriesVisited = new LongAdder();
+        this.directoriesFromIndex = new LongAdder();
+        this.filesVisited = new LongAdder();
+        this.statCalls = new LongAdder();
+        this.gitFoldersFound = new LongAdder();
+        this.queueDepth = new AtomicInteger(0);
+        this.activeWorkers = new AtomicInteger(0);
+        this.runningGitProcesses = new AtomicInteger(0);
+        this.failedGitProcesses = new LongAdder();
+        this.bytesReclaimed = new LongAdder();
+        this.gitDurations = new DurationHistogram();
+        this.slowestGitFolder = null;
+        this.slowestGitMillis = 0;
+    }
+
+    /**
+     * Registers these metrics with the platform MBean server under {@link #OBJECT_NAME},
+     * replacing metrics registered earlier.
+     * @throws IllegalStateException If the metrics could not be registered
+     */
+    public void register() {
+        try {
+            final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            final ObjectName name = new ObjectName(OBJECT_NAME);
+            try {
+                server.registerMBean(this, name);
+            }
+            catch (InstanceAlreadyExistsException e) {
+                server.unregisterMBean(name);
+                server.registerMBean(this, name);
+            }
+        }
+        catch (JMException e) {
+            throw new IllegalStateException("The metrics could not be registered: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Removes the metrics registered under {@link #OBJECT_NAME} from the platform MBean server, if any.
+     */
+    public static void unregister() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(new ObjectName(OBJECT_NAME));
+        }
+        catch (InstanceNotFoundException e) {
+            // Nothing was registered
+        }
+        catch (JMException e) {
+            throw new IllegalStateException("The metrics could not be unregistered: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Marks the start of a scan.
+     */
+    public void scanStarted() {
+        this.directoriesAtScanStart = this.directoriesVisited.sum();
+        this.filesAtScanStart = this.filesVisited.sum();
+        this.firstGitFolderNanos = 0;
+        this.scanEndNanos = 0;
+        this.scanStartNanos = System.nanoTime();
+    }
+
+    /**
+     * Marks the end of a scan.
+     */
+    public void scanFinished() {
+        this.scanEndNanos = System.nanoTime();
+    }
+
+    /**
+     * Records a listed directory.
+     * @param files     The number of regular files in it
+     * @param statCalls The number of file attribute reads made for it
+     */
+    public void directoryListed(int files, int statCalls) {
+        this.directoriesVisited.increment();
+        this.filesVisited.add(files);
+        this.statCalls.add(statCalls);
+    }
+
+    /**
+     * Records a directory taken from the scan index.
+     * @param statCalls The number of file attribute reads made for it
+     */
+    public void directoryFromIndex(int statCalls) {
+        this.directoriesFromIndex.increment();
+        this.statCalls.add(statCalls);
+    }
+
+    /**
+     * Records a found git project.
+     */
+    public void gitFolderFound() {
+        this.gitFoldersFound.increment();
+        if (this.firstGitFolderNanos == 0) {
+            this.firstGitFolderNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * Records a git project queued for a worker.
+     */
+    public void folderQueued() {
+        this.queueDepth.incrementAndGet();
+    }
+
+    /**
+     * Records a worker taking a queued git project.
+     */
+    public void workerStarted() {
+        this.queueDepth.decrementAndGet();
+        this.activeWorkers.incrementAndGet();
+    }
+
+    /**
+     * Records a worker finishing its git project.
+     */
+    public void workerFinished() {
+        this.activeWorkers.decrementAndGet();
+    }
+
+    /**
+     * Records queued git projects that were dropped without a worker ever taking them.
+     * @param count The number of dropped git projects
+     */
+    public void foldersDropped(int count) {
+        this.queueDepth.addAndGet(-count);
+    }
+
+    /**
+     * Records the start of a git process.
+     */
+    public void gitProcessStarted() {
+        this.runningGitProcesses.incrementAndGet();
+    }
+
+    /**
+     * Records the exit of a git process, whether it finished, failed or could not be waited for.
+     */
+    public void gitProcessExited() {
+        this.runningGitProcesses.decrementAndGet();
+    }
+
+    /**
+     * Records the outcome of a finished git process.
+     * @param folder         The git project it ran in
+     * @param duration       How long it ran
+     * @param success        False if it failed or timed out
+     * @param bytesReclaimed The bytes it reclaimed
+     */
+    public void gitProcessFinished(File folder, Duration duration, boolean success, long bytesReclaimed) {
+        if (!success) {
+            this.failedGitProcesses.increment();
+        }
+        this.bytesReclaimed.add(Math.max(0, bytesReclaimed));
+        this.gitDurations.record(duration);
+
+        synchronized (this.gitDurations) {
+            if (this.slowestGitFolder == null || duration.toMillis() > this.slowestGitMillis) {
+                this.slowestGitFolder = folder;
+                this.slowestGitMillis = duration.toMillis();
+            }
+        }
+    }
+
+    @Override
+    public long getDirectoriesVisited() {
+        return this.directoriesVisited.sum();
+    }
+
+    @Override
+    public long getDirectoriesFromIndex() {
+        return this.directoriesFromIndex.sum();
+    }
+
+    @Override
+    public long getFilesVisited() {
+        return this.filesVisited.sum();
+    }
+
+    @Override
+    public long getStatCalls() {
+        return this.statCalls.sum();
+    }
+
+    @Override
+    public double getDirectoriesPerSecond() {
+        return this.perSecond(this.directoriesVisited.sum() - this.directoriesAtScanStart);
+    }
+
+    @Override
+    public double getFilesPerSecond() {
+        return this.perSecond(this.filesVisited.sum() - this.filesAtScanStart);
+    }
+
+    @Override
+    public long getGitFoldersFound() {
+        return this.gitFoldersFound.sum();
+    }
+
+    @Override
+    public long getFirstGitFolderMillis() {
+        final long found = this.firstGitFolderNanos;
+        return found == 0 ? -1 : (found - this.scanStartNanos) / 1_000_000;
+    }
+
+    @Override
+    public long getScanMillis() {
+        return this.getScanNanos() / 1_000_000;
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return this.queueDepth.get();
+    }
+
+    @Override
+    public int getActiveWorkers() {
+        return this.activeWorkers.get();
+    }
+
+    @Override
+    public int getRunningGitProcesses() {
+        return this.runningGitProcesses.get();
+    }
+
+    @Override
+    public long getGitProcesses() {
+        return this.gitDurations.getCount();
+    }
+
+    @Override
+    public long getFailedGitProcesses() {
+        return this.failedGitProcesses.sum();
+    }
+
+    @Override
+    public long getBytesReclaimed() {
+        return this.bytesReclaimed.sum();
+    }
+
+    @Override
+    public double[] getGitDurationBounds() {
+        return this.gitDurations.getBounds();
+    }
+
+    @Override
+    public long[] getGitDurationCounts() {
+        return this.gitDurations.getCounts();
+    }
+
+    @Override
+    public long getGitDurationSumMillis() {
+        return this.gitDurations.getSumMillis();
+    }
+
+    @Override
+    public long getSlowestGitMillis() {
+        synchronized (this.gitDurations) {
+            return this.slowestGitMillis;
+        }
+    }
+
+    @Override
+    public String getSlowestGitFolder() {
+        synchronized (this.gitDurations) {
+            return this.slowestGitFolder == null ? "" : this.slowestGitFolder.getAbsolutePath();
+        }
+    }
+
+    /**
+     * Returns the duration of the running or last scan in nanoseconds, 0 if no scan has started.
+     */
+    private long getScanNanos() {
+        final long start = this.scanStartNanos;
+        if (start == 0) {
+            return 0;
+        }
+        final long end = this.scanEndNanos;
+        return (end == 0 ? System.nanoTime() : end) - start;
+    }
+
+    /**
+     * Returns the given count divided by the duration of the running or last scan in seconds.
+     */
+    private double perSecond(long count) {
+        final long nanos = this.getScanNanos();
+        return nanos <= 0 ? 0 : count / (nanos / 1e9);
+    }
+}
@@ -0,0 +1,107 @@
+package com.marko19907.gitCleaner.metrics;
+
+/**
+ * The management interface of {@link CleanerMetrics}, the attributes shown by JMX clients like JConsole.
+ */
+public interface CleanerMetricsMXBean {
+
+    /**
+     * Returns the number of directories listed by the scans.
+     */
+    long getDirectoriesVisited();
+
+    /**
+     * Returns the number of directories taken from the scan index without being listed.
+     */
+    long getDirectoriesFromIndex();
+
+    /**
+     * Returns the number of regular files visited by the scans.
+     */
+    long getFilesVisited();
+
+    /**
+     * Returns the number of file attribute reads made by the scans.
+     */
+    long getStatCalls();
+
+    /**
+     * Returns the number of directories listed per second by the running or last scan.
+     */
+    double getDirectoriesPerSecond();
+
+    /**
+     * Returns the number of files visited per second by the running or last scan.
+     */
+    double getFilesPerSecond();
+
+    /**
+     * Returns the number of git projects found by the scans.
+     */
+    long getGitFoldersFound();
+
+    /**
+     * Returns the time from the start of the last scan to its first git project in milliseconds, -1 if none yet.
+     */
+    long getFirstGitFolderMillis();
+
+    /**
+     * Returns the duration of the running or last scan in milliseconds.
+     */
+    long getScanMillis();
+
+    /**
+     * Returns the number of git projects waiting for a worker.
+     */
+    int getQueueDepth();
+
+    /**
+     * Returns the number of workers cleaning a git project at the moment.
+     */
+    int getActiveWorkers();
+
+    /**
+     * Returns the number of git processes running at the moment.
+     */
+    int getRunningGitProcesses();
+
+    /**
+     * Returns the number of finished git processes.
+     */
+    long getGitProcesses();
+
+    /**
+     * Returns the number of git processes that failed or timed out.
+     */
+    long getFailedGitProcesses();
+
+    /**
+     * Returns the bytes reclaimed by the finished git processes.
+     */
+    long getBytesReclaimed();
+
+    /**
+     * Returns the upper bounds of the git process duration buckets in seconds.
+     */
+    double[] getGitDurationBounds();
+
+    /**
+     * Returns the number of git processes per duration bucket, the last one counts the rest.
+     */
+    long[] getGitDurationCounts();
+
+    /**
+     * Returns the sum of the git process durations in milliseconds.
+     */
+    long getGitDurationSumMillis();
+
+    /**
+     * Returns the duration of the slowest git process in milliseconds.
+     */
+    long getSlowestGitMillis();
+
+    /**
+     * Returns the path of the git project with the slowest git process, empty if none has finished.
+     */
+    String getSlowestGitFolder();
+}
@@ -0,0 +1,133 @@
+package com.marko19907.gitCleaner.metrics;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of durations with fixed bucket bounds, safe for concurrent use.
+ * Recording only increments one bucket counter, so it can be done from every worker without contention.
+ */
+public class DurationHistogram {
+
+    /**
+     * The default upper bounds of the buckets in seconds, from a quick gc of a small project
+     * up to an aggressive gc of a huge one.
+     */
+    public static final double[] DEFAULT_BOUNDS = {0.1, 0.5, 1, 2, 5, 10, 30, 60, 120, 300, 600, 1800, 3600};
+
+    /**
+     * The upper bounds of the buckets in seconds, in ascending order.
+     */
+    private final double[] bounds;
+
+    /**
+     * The number of recorded durations per bucket, the last bucket holds everything above the largest bound.
+     */
+    private final LongAdder[] counts;
+
+    /**
+     * The sum of all recorded durations in milliseconds.
+     */
+    private final LongAdder sumMillis;
+
+    /**
+     * The longest recorded duration in milliseconds.
+     */
+    private final AtomicLong maxMillis;
+
+    /**
+     * Default no-arg constructor, uses the {@link #DEFAULT_BOUNDS}.
+     */
+    public DurationHistogram() {
+        this(DEFAULT_BOUNDS);
+    }
+
+    /**
+     * Constructor for DurationHistogram objects.
+     * @param bounds The upper bounds of the buckets in seconds, ascending and not empty
+     * @throws IllegalArgumentException If the given bounds are null, empty or not ascending
+     */
+    public DurationHistogram(double[] bounds) {
+        if (bounds == null || bounds.length == 0) {
+            throw new IllegalArgumentException("The given bounds can not be null or empty!");
+        }
+        for (int i = 1; i < bounds.length; i++) {
+            if (bounds[i] <= bounds[i - 1]) {
+                throw new IllegalArgumentException("The bounds must be in ascending order!");
+            }
+        }
+        this.bounds = bounds.clone();
+        this.counts = new LongAdder[bounds.length + 1];
+        for (int i = 0; i < this.counts.length; i++) {
+            this.counts[i] = new LongAdder();
+        }
+        this.sumMillis = new LongAdder();
+        this.maxMillis = new AtomicLong(0);
+    }
+
+    /**
+     * Records the given duration.
+     * @param duration The duration to record, not null
+     * @throws IllegalArgumentException If the given duration is null
+     */
+    public void record(Duration duration) {
+        if (duration == null) {
+            throw new IllegalArgumentException("The given duration can not be null!");
+        }
+        final long millis = duration.toMillis();
+        final double seconds = millis / 1000.0;
+
+        int bucket = 0;
+        while (bucket < this.bounds.length && seconds > this.bounds[bucket]) {
+            bucket++;
+        }
+        this.counts[bucket].increment();
+        this.sumMillis.add(millis);
+        this.maxMillis.accumulateAndGet(millis, Math::max);
+    }
+
+    /**
+     * Returns the upper bounds of the buckets in seconds.
+     */
+    public double[] getBounds() {
+        return this.bounds.clone();
+    }
+
+    /**
+     * Returns the number of recorded durations per bucket, not cumulative.
+     * The array has one more element than the bounds, the last one counts everything above the largest bound.
+     */
+    public long[] getCounts() {
+        final long[] snapshot = new long[this.counts.length];
+        for (int i = 0; i < snapshot.length; i++) {
+            snapshot[i] = this.counts[i].sum();
+        }
+        return snapshot;
+    }
+
+    /**
+     * Returns the number of recorded durations.
+     */
+    public long getCount() {
+        long count = 0;
+        for (LongAdder bucket : this.counts) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    /**
+     * Returns the sum of all recorded durations in milliseconds.
+     */
+    public long getSumMillis() {
+        return this.sumMillis.sum();
+    }
+
+    /**
+     * Returns the longest recorded duration in milliseconds, 0 if nothing has been recorded.
+     */
+    public long getMaxMillis() {
+        return this.maxMillis.get();
+    }
+}
@@ -0,0 +1,57 @@
+package com.marko19907.gitCleaner.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A JFR event covering one git maintenance process, recorded when flight recording is enabled.
+ * The duration of the event is the run time of the process, not counting the wait for the scheduler.
+ */
+@Name("com.marko19907.gitCleaner.GitMaintenance")
+@Label("Git Maintenance")
+@Category("Git Cleaner")
+@Description("One git maintenance process in a git project")
+public class GitMaintenanceEvent extends Event {
+
+    /**
+     * The git project.
+     */
+    @Label("Folder")
+    public String folder;
+
+    /**
+     * The name of the maintenance strategy.
+     */
+    @Label("Strategy")
+    public String strategy;
+
+    /**
+     * The exit code of git, -1 if it was killed.
+     */
+    @Label("Exit Code")
+    public int exitCode;
+
+    /**
+     * True if git was killed because it ran out of time.
+     */
+    @Label("Timed Out")
+    public boolean timedOut;
+
+    /**
+     * The size of the .git folder before.
+     */
+    @Label("Size Before")
+    @DataAmount
+    public long sizeBefore;
+
+    /**
+     * The size of the .git folder after.
+     */
+    @Label("Size After")
+    @DataAmount
+    public long sizeAfter;
+}
@@ -0,0 +1,137 @@
+package com.marko19907.gitCleaner.metrics;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+
+/**
+ * Formats {@link CleanerMetrics} in the Prometheus text exposition format.
+ * The file written by {@link #write(CleanerMetrics, Path)} can be picked up by the node exporter's
+ * textfile collector, so no HTTP server is needed.
+ */
+public class PrometheusExporter {
+
+    /**
+     * The prefix of every metric name.
+     */
+    private static final String PREFIX = "gitcleaner_";
+
+    /**
+     * Default no-arg constructor.
+     */
+    private PrometheusExporter() {
+    }
+
+    /**
+     * Writes the given metrics to the given file, replacing it atomically so readers never see half a file.
+     * @param metrics The metrics to write, not null
+     * @param file    The file to write, not null
+     * @throws IllegalArgumentException If the given metrics or file are null
+     * @throws IOException              If the file could not be written
+     */
+    public static void write(CleanerMetrics metrics, Path file) throws IOException {
+        if (file == null) {
+            throw new IllegalArgumentException("The given file can not be null!");
+        }
+        final Path absolute = file.toAbsolutePath();
+        final Path temporary = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+        Files.writeString(temporary, format(metrics), StandardCharsets.UTF_8);
+        Files.move(temporary, absolute, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Returns the given metrics in the Prometheus text format.
+     * @param metrics The metrics to format, not null
+     * @throws IllegalArgumentException If the given metrics are null
+     */
+    public static String format(CleanerMetrics metrics) {
+        if (metrics == null) {
+            throw new IllegalArgumentException("The given metrics can not be null!");
+        }
+
+        final StringBuilder builder = new StringBuilder();
+        counter(builder, "directories_visited_total", "Directories listed by scans",
+                metrics.getDirectoriesVisited());
+        counter(builder, "directories_from_index_total", "Directories taken from the scan index",
+                metrics.getDirectoriesFromIndex());
+        counter(builder, "files_visited_total", "Regular files visited by scans", metrics.getFilesVisited());
+        counter(builder, "stat_calls_total", "File attribute reads made by scans", metrics.getStatCalls());
+        gauge(builder, "directories_per_second", "Directories listed per second by the last scan",
+                metrics.getDirectoriesPerSecond());
+        gauge(builder, "files_per_second", "Files visited per second by the last scan", metrics.getFilesPerSecond());
+        counter(builder, "git_folders_found_total", "Git projects found by scans", metrics.getGitFoldersFound());
+        gauge(builder, "first_git_folder_seconds", "Time from the start of the last scan to its first git project",
+                metrics.getFirstGitFolderMillis() < 0 ? Double.NaN : metrics.getFirstGitFolderMillis() / 1000.0);
+        gauge(builder, "scan_seconds", "Duration of the last scan", metrics.getScanMillis() / 1000.0);
+        gauge(builder, "queue_depth", "Git projects waiting for a worker", metrics.getQueueDepth());
+        gauge(builder, "active_workers", "Workers cleaning a git project", metrics.getActiveWorkers());
+        gauge(builder, "running_git_processes", "Running git processes", metrics.getRunningGitProcesses());
+        counter(builder, "git_processes_failed_total", "Git processes that failed or timed out",
+                metrics.getFailedGitProcesses());
+        counter(builder, "bytes_reclaimed_total", "Bytes reclaimed by git processes", metrics.getBytesReclaimed());
+        histogram(builder, "git_duration_seconds", "Duration of the git processes", metrics);
+        gauge(builder, "slowest_git_seconds", "Duration of the slowest git process",
+                metrics.getSlowestGitMillis() / 1000.0);
+        return builder.toString();
+    }
+
+    /**
+     * Appends a counter.
+     */
+    private static void counter(StringBuilder builder, String name, String help, long value) {
+        header(builder, name, help, "counter");
+        builder.append(PREFIX).append(name).append(' ').append(value).append('\n');
+    }
+
+    /**
+     * Appends a gauge.
+     */
+    private static void gauge(StringBuilder builder, String name, String help, double value) {
+        header(builder, name, help, "gauge");
+        builder.append(PREFIX).append(name).append(' ').append(number(value)).append('\n');
+    }
+
+    /**
+     * Appends the git process duration histogram, the buckets are cumulative as Prometheus expects.
+     */
+    private static void histogram(StringBuilder builder, String name, String help, CleanerMetrics metrics) {
+        header(builder, name, help, "histogram");
+        final double[] bounds = metrics.getGitDurationBounds();
+        final long[] counts = metrics.getGitDurationCounts();
+
+        long cumulative = 0;
+        for (int i = 0; i < counts.length; i++) {
+            cumulative += counts[i];
+            final String bound = i < bounds.length ? number(bounds[i]) : "+Inf";
+            builder.append(PREFIX).append(name).append("_bucket{le=\"").append(bound).append("\"} ")
+                    .append(cumulative).append('\n');
+        }
+        builder.append(PREFIX).append(name).append("_sum ")
+                .append(number(metrics.getGitDurationSumMillis() / 1000.0)).append('\n');
+        builder.append(PREFIX).append(name).append("_count ").append(cumulative).append('\n');
+    }
+
+    /**
+     * Appends the HELP and TYPE lines of a metric.
+     */
+    private static void header(StringBuilder builder, String name, String help, String type) {
+        builder.append("# HELP ").append(PREFIX).append(name).append(' ').append(help).append('\n');
+        builder.append("# TYPE ").append(PREFIX).append(name).append(' ').append(type).append('\n');
+    }
+
+    /**
+     * Formats the given number the way Prometheus reads it.
+     */
+    private static String number(double value) {
+        if (Double.isNaN(value)) {
+            return "NaN";
+        }
+        if (value == Math.rint(value) && !Double.isInfinite(value)) {
+            return Long.toString((long) value);
+        }
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+}
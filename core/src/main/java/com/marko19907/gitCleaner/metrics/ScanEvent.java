@@ -0,0 +1,55 @@
+package com.marko19907.gitCleaner.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A JFR event covering one scan of a directory tree, recorded when flight recording is enabled.
+ */
+@Name("com.marko19907.gitCleaner.Scan")
+@Label("Scan")
+@Category("Git Cleaner")
+@Description("The discovery and sizing of one directory tree")
+public class ScanEvent extends Event {
+
+    /**
+     * The scanned directory.
+     */
+    @Label("Directory")
+    public String directory;
+
+    /**
+     * The number of directories listed.
+     */
+    @Label("Directories Visited")
+    public long directoriesVisited;
+
+    /**
+     * The number of regular files visited.
+     */
+    @Label("Files Visited")
+    public long filesVisited;
+
+    /**
+     * The number of file attribute reads.
+     */
+    @Label("Stat Calls")
+    public long statCalls;
+
+    /**
+     * The number of git projects found.
+     */
+    @Label("Git Folders Found")
+    public int gitFoldersFound;
+
+    /**
+     * The combined size of the visited files.
+     */
+    @Label("Total Size")
+    @DataAmount
+    public long totalSize;
+}
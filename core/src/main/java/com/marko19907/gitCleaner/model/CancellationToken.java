@@ -0,0 +1,92 @@
+package com.marko19907.gitCleaner.model;
+
+import com.marko19907.gitCleaner.utilities.CleaningInterruptedException;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * A one-shot cancellation signal shared by the discovery, sizing and cleaning of one task.
+ * The loops poll {@link #isCancelled()}, which is a single volatile read,
+ * while blocking work like a running git process registers a listener that stops it right away.
+ */
+public class CancellationToken {
+
+    /**
+     * True once the token has been cancelled.
+     */
+    private volatile boolean cancelled;
+
+    /**
+     * The listeners to run on cancellation.
+     */
+    private final List<Runnable> listeners;
+
+    /**
+     * Default no-arg constructor, creates a token that is not cancelled.
+     */
+    public CancellationToken() {
+        this.cancelled = false;
+        this.listeners = new CopyOnWriteArrayList<>();
+    }
+
+    /**
+     * Cancels the token and runs the registered listeners on the calling thread.
+     * Cancelling an already cancelled token does nothing.
+     */
+    public void cancel() {
+        synchronized (this.listeners) {
+            if (this.cancelled) {
+                return;
+            }
+            this.cancelled = true;
+        }
+        for (Runnable listener : this.listeners) {
+            listener.run();
+        }
+    }
+
+    /**
+     * Returns true if the token has been cancelled.
+     */
+    public boolean isCancelled() {
+        return this.cancelled;
+    }
+
+    /**
+     * Throws if the token has been cancelled.
+     * @throws CleaningInterruptedException If the token has been cancelled
+     */
+    public void throwIfCancelled() {
+        if (this.cancelled) {
+            throw new CleaningInterruptedException("Cancelled");
+        }
+    }
+
+    /**
+     * Registers a listener that is run once the token is cancelled,
+     * it is run right away if the token already is.
+     * @param listener The listener to run, not null
+     * @throws IllegalArgumentException If the given listener is null
+     */
+    public void addListener(Runnable listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("The given listener can not be null!");
+        }
+        synchronized (this.listeners) {
+            if (!this.cancelled) {
+                this.listeners.add(listener);
+                return;
+            }
+        }
+        listener.run();
+    }
+
+    /**
+     * Removes a listener registered with {@link #addListener(Runnable)}.
+     * @param listener The listener to remove
+     */
+    public void removeListener(Runnable listener) {
+        this.listeners.remove(listener);
+    }
+}
@@ -0,0 +1,407 @@
+package com.marko19907.gitCleaner.model;
+
+import com.marko19907.gitCleaner.utilities.Utilities;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An append-only journal of the git folders a cleaning run has finished, stored in the user cache directory.
+ * A run that is interrupted by a reboot, a cancel or an error can be resumed later, skipping every folder
+ * the journal already lists as finished instead of starting over with the largest folders again.
+ * <p>
+ * The journal is a text file of one record per line. A generation line starts every fresh run,
+ * the folder lines of that run follow it and an end line marks the run as complete.
+ * Only an incomplete generation can be resumed, a complete one makes the next run start a new generation.
+ * Lines are written as the folders finish, but forced to the disk only in batches, so a crash
+ * loses at most the last batch and those folders are simply cleaned again. A batch that is not full is
+ * forced after the sync interval by {@link #syncIfDue()}, which the owner calls while git is running.
+ * A line torn by a crash is ignored when the journal is read back.
+ */
+public class CheckpointJournal implements AutoCloseable {
+
+    /**
+     * The number of records written before they are forced to the disk.
+     */
+    private static final int SYNC_BATCH = 16;
+
+    /**
+     * The longest time a record waits before it is forced to the disk, in nanoseconds.
+     * Checked when a record is written and whenever {@link #syncIfDue()} is called.
+     */
+    private static final long SYNC_INTERVAL_NANOS = Duration.ofSeconds(2).toNanos();
+
+    /**
+     * The first field of a generation line.
+     */
+    private static final String GENERATION = "G";
+
+    /**
+     * The first field of a folder line.
+     */
+    private static final String DONE = "D";
+
+    /**
+     * The first field of the line that marks a generation as complete.
+     */
+    private static final String END = "E";
+
+    /**
+     * The strategy field of a folder line that was cleaned without a strategy.
+     */
+    private static final String NO_STRATEGY = "-";
+
+    /**
+     * The journal file.
+     */
+    private final Path journalFile;
+
+    /**
+     * The number of the current generation.
+     */
+    private final long generation;
+
+    /**
+     * The finished folders of the current generation read back from the journal, keyed by the folder.
+     */
+    private final Map<File, CleaningResult> finished;
+
+    /**
+     * The open journal file, guarded by this object.
+     */
+    private final FileChannel channel;
+
+    /**
+     * The number of records written since the last sync, guarded by this object.
+     */
+    private int unsynced;
+
+    /**
+     * When the journal was last forced to the disk, from {@link System#nanoTime()}, guarded by this object.
+     */
+    private long lastSync;
+
+    /**
+     * Constructor for CheckpointJournal objects.
+     * @param journalFile The journal file
+     * @param generation  The number of the current generation
+     * @param finished    The finished folders of the current generation
+     * @param channel     The open journal file, positioned at its end
+     */
+    private CheckpointJournal(Path journalFile, long generation, Map<File, CleaningResult> finished,
+                              FileChannel channel) {
+        this.journalFile = journalFile;
+        this.generation = generation;
+        this.finished = finished;
+        this.channel = channel;
+        this.unsynced = 0;
+        this.lastSync = System.nanoTime();
+    }
+
+    /**
+     * Opens the journal of the given directory in the user cache directory.
+     * When resuming, the last generation is continued if it is incomplete. Otherwise, and when not resuming,
+     * the journal is started over with a new generation.
+     * @param directory The directory that is cleaned, not null
+     * @param resume    True to continue an incomplete generation
+     * @throws IllegalArgumentException If the given directory is null
+     * @throws IOException              If the journal could not be opened or written
+     */
+    public static CheckpointJournal open(File directory, boolean resume) throws IOException {
+        if (directory == null) {
+            throw new IllegalArgumentException("The given directory can not be null!");
+        }
+        return open(List.of(directory), resume);
+    }
+
+    /**
+     * Opens the journal of the given set of directories in the user cache directory,
+     * the directories are cleaned together and share a single journal. See {@link #open(File, boolean)}.
+     * @param directories The directories that are cleaned, not null or empty
+     * @param resume      True to continue an incomplete generation
+     * @throws IllegalArgumentException If the given directories are null or empty
+     * @throws IOException              If the journal could not be opened or written
+     */
+    public static CheckpointJournal open(List<File> directories, boolean resume) throws IOException {
+        return open(directories, resume, Utilities.getCacheDirectory());
+    }
+
+    /**
+     * Opens the journal of the given set of directories in the given cache directory,
+     * see {@link #open(List, boolean)}.
+     * @param directories    The directories that are cleaned, not null or empty
+     * @param resume         True to continue an incomplete generation
+     * @param cacheDirectory The directory the journal file is kept in, not null
+     * @throws IllegalArgumentException If the given directories are null or empty or the cache directory is null
+     * @throws IOException              If the journal could not be opened or written
+     */
+    static CheckpointJournal open(List<File> directories, boolean resume, Path cacheDirectory) throws IOException {
+        if (directories == null || directories.isEmpty()) {
+            throw new IllegalArgumentException("The given directories can not be null or empty!");
+        }
+        if (cacheDirectory == null) {
+            throw new IllegalArgumentException("The given cache directory can not be null!");
+        }
+
+        final String root = Utilities.joinPaths(directories);
+        final Path journalFile = cacheDirectory.resolve("journal-" + Integer.toHexString(root.hashCode()) + ".log");
+        Files.createDirectories(journalFile.getParent());
+
+        final State state = read(journalFile, root);
+        if (resume && state.generation > 0 && !state.complete) {
+            final FileChannel channel = FileChannel.open(journalFile,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            final CheckpointJournal journal = new CheckpointJournal(journalFile, state.generation,
+                    state.finished, channel);
+            if (!state.endsWithNewline) {
+                // A torn last line is ended, so the next record starts on a line of its own
+                journal.write("\n");
+            }
+            return journal;
+        }
+
+        // A fresh run truncates the journal, older generations are never read again
+        final long generation = state.generation + 1;
+        final FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        final CheckpointJournal journal = new CheckpointJournal(journalFile, generation,
+                Collections.emptyMap(), channel);
+        journal.write(GENERATION + " " + generation + " " + root + "\n");
+        journal.sync();
+        return journal;
+    }
+
+    /**
+     * Returns the finished folders of the current generation that were read back when resuming,
+     * empty for a new generation.
+     */
+    public Map<File, CleaningResult> getFinished() {
+        return Collections.unmodifiableMap(this.finished);
+    }
+
+    /**
+     * Returns the number of the current generation.
+     */
+    public long getGeneration() {
+        return this.generation;
+    }
+
+    /**
+     * Returns the journal file.
+     */
+    public Path getJournalFile() {
+        return this.journalFile;
+    }
+
+    /**
+     * Returns true if the given result means the folder does not have to be cleaned again in this generation.
+     * Failed and timed out folders are retried, dry run results are never journaled.
+     * @param result The result to check
+     */
+    public static boolean isFinished(CleaningResult result) {
+        return result.status() == CleaningResult.Status.CLEANED || result.status() == CleaningResult.Status.SKIPPED;
+    }
+
+    /**
+     * Appends the given result to the journal if the folder is finished, forcing the batch to the disk when full.
+     * @param result The result to record, not null
+     * @throws IllegalArgumentException If the given result is null
+     * @throws IOException              If the journal could not be written
+     */
+    public synchronized void record(CleaningResult result) throws IOException {
+        if (result == null) {
+            throw new IllegalArgumentException("The given result can not be null!");
+        }
+        if (!isFinished(result)) {
+            return;
+        }
+
+        this.write(String.join(" ", DONE,
+                result.status().name(),
+                Integer.toString(result.exitCode()),
+                Long.toString(result.duration().toMillis()),
+                Long.toString(result.sizeBefore()),
+                Long.toString(result.sizeAfter()),
+                encodeStrategy(result.strategy()),
+                result.folder().getAbsolutePath()) + "\n");
+
+        this.unsynced++;
+        if (this.unsynced >= SYNC_BATCH || System.nanoTime() - this.lastSync >= SYNC_INTERVAL_NANOS) {
+            this.sync();
+        }
+    }
+
+    /**
+     * Forces the unsynced records to the disk once the sync interval has passed since the last sync.
+     * Meant to be called regularly while a long git process runs, so the records of a burst of finished folders
+     * do not wait for the next record to be written.
+     * @throws IOException If the journal could not be written
+     */
+    public synchronized void syncIfDue() throws IOException {
+        if (this.unsynced > 0 && System.nanoTime() - this.lastSync >= SYNC_INTERVAL_NANOS) {
+            this.sync();
+        }
+    }
+
+    /**
+     * Marks the current generation as complete, the next run starts a new one even when resuming.
+     * @throws IOException If the journal could not be written
+     */
+    public synchronized void complete() throws IOException {
+        this.write(END + "\n");
+        this.sync();
+    }
+
+    /**
+     * Forces the unsynced records to the disk and closes the journal.
+     * @throws IOException If the journal could not be written
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            this.sync();
+        }
+        finally {
+            this.channel.close();
+        }
+    }
+
+    /**
+     * Forces the written records to the disk.
+     */
+    private void sync() throws IOException {
+        if (this.channel.isOpen()) {
+            this.channel.force(false);
+        }
+        this.unsynced = 0;
+        this.lastSync = System.nanoTime();
+    }
+
+    /**
+     * Writes the given text at the end of the journal.
+     */
+    private void write(String text) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            this.channel.write(buffer);
+        }
+    }
+
+    /**
+     * Encodes the given strategy name as a single field, so a name with spaces does not shift the path field.
+     * @param strategy The strategy name, null if none
+     * @return The encoded name, {@link #NO_STRATEGY} for null
+     */
+    private static String encodeStrategy(String strategy) {
+        if (strategy == null) {
+            return NO_STRATEGY;
+        }
+        final String encoded = URLEncoder.encode(strategy, StandardCharsets.UTF_8);
+        // A strategy that is actually named "-" must not be read back as none
+        return encoded.equals(NO_STRATEGY) ? "%2D" : encoded;
+    }
+
+    /**
+     * Decodes the given strategy field written by {@link #encodeStrategy(String)}.
+     * @param field The strategy field
+     * @return The strategy name, null if none
+     * @throws IllegalArgumentException If the field is not validly encoded
+     */
+    private static String decodeStrategy(String field) {
+        return field.equals(NO_STRATEGY) ? null : URLDecoder.decode(field, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads the last generation of the given journal file.
+     * @param journalFile The journal file, may not exist
+     * @param root        The absolute paths of the cleaned directories
+     * @return The state of the last generation, generation 0 if there is none for the given directory
+     */
+    private static State read(Path journalFile, String root) {
+        final State state = new State();
+        if (!Files.isRegularFile(journalFile)) {
+            return state;
+        }
+
+        final String content;
+        try {
+            content = Files.readString(journalFile, StandardCharsets.UTF_8);
+        }
+        catch (IOException e) {
+            // An unreadable journal is simply started over
+            return state;
+        }
+
+        state.endsWithNewline = content.isEmpty() || content.endsWith("\n");
+        final List<String> lines = content.lines().toList();
+        for (String line : lines) {
+            // The path is always the last field, so it may contain spaces, the encoded strategy name never does
+            final String[] fields = line.split(" ", line.startsWith(GENERATION + " ") ? 3 : 8);
+            try {
+                if (fields[0].equals(GENERATION) && fields.length == 3) {
+                    // Only a journal written for the same directory counts
+                    state.generation = fields[2].equals(root) ? Long.parseLong(fields[1]) : 0;
+                    state.complete = false;
+                    state.finished.clear();
+                }
+                else if (fields[0].equals(DONE) && fields.length == 8 && state.generation > 0) {
+                    final CleaningResult result = new CleaningResult(
+                            new File(fields[7]),
+                            Long.parseLong(fields[4]),
+                            Long.parseLong(fields[5]),
+                            Duration.ofMillis(Long.parseLong(fields[3])),
+                            decodeStrategy(fields[6]),
+                            Integer.parseInt(fields[2]),
+                            CleaningResult.Status.valueOf(fields[1]));
+                    state.finished.put(result.folder(), result);
+                }
+                else if (fields[0].equals(END)) {
+                    state.complete = true;
+                }
+            }
+            catch (IllegalArgumentException e) {
+                // A line torn by a crash, the folder is cleaned again
+            }
+        }
+        return state;
+    }
+
+    /**
+     * What was read back from a journal file.
+     */
+    private static class State {
+
+        /**
+         * The number of the last generation, 0 if there is none.
+         */
+        private long generation = 0;
+
+        /**
+         * True if the last generation is complete.
+         */
+        private boolean complete = false;
+
+        /**
+         * True if the file ends with a complete line.
+         */
+        private boolean endsWithNewline = true;
+
+        /**
+         * The finished folders of the last generation.
+         */
+        private final Map<File, CleaningResult> finished = new HashMap<>();
+    }
+}
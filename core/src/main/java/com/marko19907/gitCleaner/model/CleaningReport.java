@@ -0,0 +1,256 @@
+package com.marko19907.gitCleaner.model;
+
+import com.marko19907.gitCleaner.utilities.Utilities;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The aggregate report of a cleaning run, computed from the per-folder results without reading the disk again.
+ */
+public class CleaningReport {
+
+    /**
+     * The per-folder results.
+     */
+    private final List<CleaningResult> results;
+
+    /**
+     * The total size of the files the scan read before cleaning in bytes, -1 if it was not measured.
+     * Pruned directories are not read, so they are not part of it.
+     */
+    private final long totalSizeBefore;
+
+    /**
+     * The size of the files hard linked into more than one .git folder before cleaning in bytes, beyond their
+     * first count. They are part of the size of every .git folder they are in, but of the total size only once.
+     */
+    private final long sharedSizeBefore;
+
+    /**
+     * Constructor for CleaningReport objects of .git folders that share no files.
+     * @param results         The per-folder results, not null
+     * @param totalSizeBefore The total size of the files the scan read before cleaning, -1 if it was not measured
+     * @throws IllegalArgumentException If the given results are null
+     */
+    public CleaningReport(List<CleaningResult> results, long totalSizeBefore) {
+        this(results, totalSizeBefore, 0);
+    }
+
+    /**
+     * Constructor for CleaningReport objects.
+     * @param results          The per-folder results, not null
+     * @param totalSizeBefore  The total size of the files the scan read before cleaning, -1 if it was not measured
+     * @param sharedSizeBefore The size of the files hard linked into more than one .git folder, beyond their
+     *                         first count
+     * @throws IllegalArgumentException If the given results are null
+     */
+    public CleaningReport(List<CleaningResult> results, long totalSizeBefore, long sharedSizeBefore) {
+        if (results == null) {
+            throw new IllegalArgumentException("The given results can not be null!");
+        }
+        this.results = Collections.unmodifiableList(new ArrayList<>(results));
+        this.totalSizeBefore = totalSizeBefore;
+        this.sharedSizeBefore = sharedSizeBefore;
+    }
+
+    /**
+     * Returns the total size of the files the scan read before cleaning in bytes, -1 if it was not measured.
+     */
+    public long getTotalSizeBefore() {
+        return this.totalSizeBefore;
+    }
+
+    /**
+     * Returns the size of the files hard linked into more than one .git folder before cleaning in bytes,
+     * beyond their first count. The combined size of the .git folders exceeds their disk usage by this much.
+     */
+    public long getSharedSizeBefore() {
+        return this.sharedSizeBefore;
+    }
+
+    /**
+     * Returns the per-folder results.
+     */
+    public List<CleaningResult> getResults() {
+        return this.results;
+    }
+
+    /**
+     * Returns the combined size of all .git folders before cleaning in bytes.
+     */
+    public long getGitFoldersSizeBefore() {
+        return this.results.stream().mapToLong(CleaningResult::sizeBefore).sum();
+    }
+
+    /**
+     * Returns the combined size of all .git folders after cleaning in bytes.
+     */
+    public long getGitFoldersSizeAfter() {
+        return this.results.stream().mapToLong(CleaningResult::sizeAfter).sum();
+    }
+
+    /**
+     * Returns the number of bytes the cleaning freed up in total.
+     */
+    public long getBytesReclaimed() {
+        return this.getGitFoldersSizeBefore() - this.getGitFoldersSizeAfter();
+    }
+
+    /**
+     * Returns the number of folders that ended with the given status.
+     * @param status The status to count
+     */
+    public long count(CleaningResult.Status status) {
+        return this.results.stream().filter(result -> result.status() == status).count();
+    }
+
+    /**
+     * Returns the report as human-readable text.
+     */
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder();
+
+        // Only the .git folders change, so the total after cleaning follows from what was reclaimed
+        if (this.totalSizeBefore >= 0) {
+            final long totalSizeAfter = this.totalSizeBefore - this.getBytesReclaimed();
+            builder.append("Size before: ").append(Utilities.formatSize(this.totalSizeBefore));
+            builder.append("\n");
+            builder.append("Size after: ").append(Utilities.formatSize(totalSizeAfter));
+            builder.append("\n");
+            builder.append("Delta: ").append(Utilities.formatSize(this.getBytesReclaimed()));
+            builder.append("\n");
+            builder.append("\n");
+        }
+
+        final long gitFoldersSizeBefore = this.getGitFoldersSizeBefore();
+        final long gitFoldersSizeAfter = this.getGitFoldersSizeAfter();
+        builder.append("Size of all .git folders before: ").append(Utilities.formatSize(gitFoldersSizeBefore));
+        builder.append("\n");
+        builder.append("Size of all .git folders after: ").append(Utilities.formatSize(gitFoldersSizeAfter));
+        builder.append("\n");
+        builder.append("Delta: ").append(Utilities.formatSize(this.getBytesReclaimed()));
+
+        if (this.sharedSizeBefore > 0) {
+            // Local clones hard link their objects, those count toward every clone but take up the space once
+            builder.append("\n");
+            builder.append("\n");
+            builder.append("Shared by several .git folders, counted in each: ")
+                    .append(Utilities.formatSize(this.sharedSizeBefore));
+        }
+
+        if (this.count(CleaningResult.Status.PLANNED) > 0) {
+            builder.append("\n");
+            builder.append("\n");
+            builder.append("Dry run, would have cleaned: ").append(this.count(CleaningResult.Status.PLANNED));
+        }
+
+        if (this.count(CleaningResult.Status.SKIPPED) > 0) {
+            builder.append("\n");
+            builder.append("\n");
+            builder.append("Skipped as already optimal: ").append(this.count(CleaningResult.Status.SKIPPED));
+        }
+
+        final long failed = this.count(CleaningResult.Status.FAILED) + this.count(CleaningResult.Status.TIMED_OUT);
+        if (failed > 0) {
+            builder.append("\n");
+            builder.append("\n");
+            builder.append("Failed or timed out: ").append(failed);
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Returns the report as a JSON object with the totals and one entry per folder.
+     */
+    public String toJson() {
+        final StringBuilder builder = new StringBuilder();
+        builder.append("{");
+        builder.append("\"totalSizeBefore\":").append(this.totalSizeBefore).append(",");
+        builder.append("\"gitFoldersSizeBefore\":").append(this.getGitFoldersSizeBefore()).append(",");
+        builder.append("\"gitFoldersSizeAfter\":").append(this.getGitFoldersSizeAfter()).append(",");
+        builder.append("\"bytesReclaimed\":").append(this.getBytesReclaimed()).append(",");
+        builder.append("\"sharedSizeBefore\":").append(this.sharedSizeBefore).append(",");
+        builder.append("\"results\":[");
+
+        for (int i = 0; i < this.results.size(); i++) {
+            final CleaningResult result = this.results.get(i);
+            if (i > 0) {
+                builder.append(",");
+            }
+            builder.append("{");
+            builder.append("\"folder\":").append(jsonString(result.folder().getAbsolutePath())).append(",");
+            builder.append("\"status\":").append(jsonString(result.status().name())).append(",");
+            builder.append("\"strategy\":").append(result.strategy() == null ? "null" : jsonString(result.strategy()));
+            builder.append(",");
+            builder.append("\"exitCode\":").append(result.exitCode()).append(",");
+            builder.append("\"durationMillis\":").append(result.duration().toMillis()).append(",");
+            builder.append("\"sizeBefore\":").append(result.sizeBefore()).append(",");
+            builder.append("\"sizeAfter\":").append(result.sizeAfter()).append(",");
+            builder.append("\"bytesReclaimed\":").append(result.bytesReclaimed());
+            builder.append("}");
+        }
+
+        builder.append("]}");
+        return builder.toString();
+    }
+
+    /**
+     * Returns the per-folder results as CSV with a header line.
+     */
+    public String toCsv() {
+        final StringBuilder builder = new StringBuilder();
+        builder.append("folder,status,strategy,exitCode,durationMillis,sizeBefore,sizeAfter,bytesReclaimed\n");
+
+        for (CleaningResult result : this.results) {
+            builder.append(csvField(result.folder().getAbsolutePath())).append(",");
+            builder.append(result.status().name()).append(",");
+            builder.append(result.strategy() == null ? "" : csvField(result.strategy())).append(",");
+            builder.append(result.exitCode()).append(",");
+            builder.append(result.duration().toMillis()).append(",");
+            builder.append(result.sizeBefore()).append(",");
+            builder.append(result.sizeAfter()).append(",");
+            builder.append(result.bytesReclaimed()).append("\n");
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Returns the given text as a quoted JSON string.
+     */
+    private static String jsonString(String text) {
+        final StringBuilder builder = new StringBuilder("\"");
+        for (char c : text.toCharArray()) {
+            switch (c) {
+                case '"' -> builder.append("\\\"");
+                case '\\' -> builder.append("\\\\");
+                case '\n' -> builder.append("\\n");
+                case '\r' -> builder.append("\\r");
+                case '\t' -> builder.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        builder.append(String.format("\\u%04x", (int) c));
+                    }
+                    else {
+                        builder.append(c);
+                    }
+                }
+            }
+        }
+        return builder.append("\"").toString();
+    }
+
+    /**
+     * Returns the given text as a CSV field, quoted if it contains a separator, a quote or a line break.
+     */
+    private static String csvField(String text) {
+        if (text.contains(",") || text.contains("\"") || text.contains("\n") || text.contains("\r")) {
+            return "\"" + text.replace("\"", "\"\"") + "\"";
+        }
+        return text;
+    }
+}
@@ -0,0 +1,60 @@
+package com.marko19907.gitCleaner.model;
+
+import java.io.File;
+import java.time.Duration;
+
+/**
+ * The result of cleaning a single git folder, gathered while the cleaning runs.
+ * @param folder     The git folder
+ * @param sizeBefore The size of the .git folder before cleaning in bytes
+ * @param sizeAfter  The size of the .git folder after cleaning in bytes
+ * @param duration   The time the git process ran, zero if it was not started
+ * @param strategy   The name of the maintenance strategy that was run, null if the folder was skipped
+ * @param exitCode   The exit code of the git process, -1 if it was skipped or timed out
+ * @param status     How the cleaning of the folder ended
+ */
+public record CleaningResult(File folder,
+                             long sizeBefore,
+                             long sizeAfter,
+                             Duration duration,
+                             String strategy,
+                             int exitCode,
+                             Status status) {
+
+    /**
+     * How the cleaning of a single git folder ended.
+     */
+    public enum Status {
+        /**
+         * The git process ran and exited successfully.
+         */
+        CLEANED,
+
+        /**
+         * The folder was already optimal, no git process was started.
+         */
+        SKIPPED,
+
+        /**
+         * The folder would have been cleaned, but no git process was started because this was a dry run.
+         */
+        PLANNED,
+
+        /**
+         * The git process exited with an error.
+         */
+        FAILED,
+
+        /**
+         * The git process ran longer than the timeout and was killed.
+         */
+        TIMED_OUT
+    }
+
+    /**
+     * Returns the number of bytes the cleaning freed up, negative if the .git folder grew.
+     */
+    public long bytesReclaimed() {
+        return this.sizeBefore - this.sizeAfter;
+    }
+}
@@ -0,0 +1,239 @@
+package com.marko19907.gitCleaner.model;
+
+import com.sun.management.OperatingSystemMXBean;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Schedules git processes against a global memory and CPU budget, so that running several of them
+ * at once never makes the host swap. Every job reserves an estimate of the memory and the number of
+ * pack threads it needs, derived from the size of its .git folder. Large projects get more threads
+ * and, once their estimate reaches the whole budget, run alone. Small projects only need a single
+ * thread and a little memory, so many of them run side by side.
+ * <p>
+ * Reservations are granted strictly in the order they were requested, a large job waiting
+ * for the budget to free up is never overtaken by a stream of small ones.
+ * Waiting jobs park on a lock instead of a monitor, so a virtual thread waiting here does not pin its carrier.
+ */
+public class CleaningScheduler {
+
+    /**
+     * The smallest amount of memory a job reserves.
+     */
+    private static final long MIN_JOB_MEMORY = 64L * 1024L * 1024L;
+
+    /**
+     * The amount of .git folder data one pack thread is given.
+     */
+    private static final long BYTES_PER_THREAD = 256L * 1024L * 1024L;
+
+    /**
+     * The total amount of memory all running jobs may reserve.
+     */
+    private final long memoryBudget;
+
+    /**
+     * The total number of pack threads all running jobs may reserve.
+     */
+    private final int cpuBudget;
+
+    /**
+     * The memory that is not reserved at the moment, guarded by the lock.
+     */
+    private long freeMemory;
+
+    /**
+     * The pack threads that are not reserved at the moment, guarded by the lock.
+     */
+    private int freeCpus;
+
+    /**
+     * The jobs waiting for a reservation in the order they asked for it, guarded by the lock.
+     */
+    private final Deque<Object> waiting;
+
+    /**
+     * The lock that guards the budget and the waiting queue.
+     */
+    private final ReentrantLock lock;
+
+    /**
+     * Signalled whenever the budget or the head of the waiting queue changes.
+     */
+    private final Condition changed;
+
+    /**
+     * Default no-arg constructor, budgets half of the physical memory and all available cores.
+     */
+    public CleaningScheduler() {
+        this(getDefaultMemoryBudget(), Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor for CleaningScheduler objects.
+     * @param memoryBudget The total amount of memory in bytes all running jobs may reserve, at least 64 MB
+     * @param cpuBudget    The total number of pack threads all running jobs may reserve, at least 1
+     * @throws IllegalArgumentException If one of the budgets is too small
+     */
+    public CleaningScheduler(long memoryBudget, int cpuBudget) {
+        if (memoryBudget < MIN_JOB_MEMORY || cpuBudget < 1) {
+            throw new IllegalArgumentException("The budget must allow for at least one small job!");
+        }
+        this.memoryBudget = memoryBudget;
+        this.cpuBudget = cpuBudget;
+        this.freeMemory = memoryBudget;
+        this.freeCpus = cpuBudget;
+        this.waiting = new ArrayDeque<>();
+        this.lock = new ReentrantLock();
+        this.changed = this.lock.newCondition();
+    }
+
+    /**
+     * Returns the default memory budget, half of the physical memory.
+     */
+    public static long getDefaultMemoryBudget() {
+        final OperatingSystemMXBean system = (OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+        return Math.max(MIN_JOB_MEMORY, system.getTotalMemorySize() / 2);
+    }
+
+    /**
+     * Waits until the budget allows for the given job and reserves what it needs.
+     * @param gitFolderSize The size of the project's .git folder in bytes
+     * @param strategy      The strategy the job runs
+     * @return The reservation, to be closed once the job has finished
+     * @throws InterruptedException If the thread was interrupted while waiting
+     */
+    public Reservation acquire(long gitFolderSize, MaintenanceStrategy strategy) throws InterruptedException {
+        final int threads = (int) Math.min(this.cpuBudget, Math.max(1, gitFolderSize / BYTES_PER_THREAD));
+        final long estimate = (long) (gitFolderSize * getMemoryFactor(strategy));
+        final long memory = Math.min(this.memoryBudget, Math.max(MIN_JOB_MEMORY, estimate));
+
+        final Object ticket = new Object();
+        this.lock.lock();
+        try {
+            this.waiting.addLast(ticket);
+            try {
+                while (this.waiting.peekFirst() != ticket || this.freeMemory < memory || this.freeCpus < threads) {
+                    this.changed.await();
+                }
+            }
+            catch (InterruptedException e) {
+                this.waiting.remove(ticket);
+                this.changed.signalAll();
+                throw e;
+            }
+
+            this.waiting.removeFirst();
+            this.freeMemory -= memory;
+            this.freeCpus -= threads;
+            // The next job in line may fit into what is left
+            this.changed.signalAll();
+        }
+        finally {
+            this.lock.unlock();
+        }
+
+        return new Reservation(memory, threads);
+    }
+
+    /**
+     * Returns the memory git needs per byte of .git folder when running the given strategy, a rough estimate.
+     * Aggressive repacks keep the largest delta windows in memory, light maintenance only packs loose objects.
+     */
+    private static double getMemoryFactor(MaintenanceStrategy strategy) {
+        if (strategy == MaintenanceTier.AGGRESSIVE) {
+            return 1.0;
+        }
+        if (strategy == MaintenanceTier.STANDARD) {
+            return 0.5;
+        }
+        return 0.25;
+    }
+
+    /**
+     * Returns the reserved resources to the budget.
+     * @param reservation The reservation to release
+     */
+    private void release(Reservation reservation) {
+        this.lock.lock();
+        try {
+            this.freeMemory += reservation.memory;
+            this.freeCpus += reservation.threads;
+            this.changed.signalAll();
+        }
+        finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * The resources reserved for a single job, the job's git process is tuned to stay within them.
+     */
+    public class Reservation implements AutoCloseable {
+
+        /**
+         * The reserved memory in bytes.
+         */
+        private final long memory;
+
+        /**
+         * The reserved number of pack threads.
+         */
+        private final int threads;
+
+        /**
+         * True once the reservation has been released.
+         */
+        private boolean released;
+
+        /**
+         * Constructor for Reservation objects.
+         * @param memory  The reserved memory in bytes
+         * @param threads The reserved number of pack threads
+         */
+        private Reservation(long memory, int threads) {
+            this.memory = memory;
+            this.threads = threads;
+            this.released = false;
+        }
+
+        /**
+         * Returns the git config arguments that keep the process within the reservation,
+         * to be placed in front of the git subcommand.
+         */
+        public List<String> getConfigArguments() {
+            final long windowMemory = Math.max(1, this.memory / this.threads / (1024L * 1024L));
+            return List.of("-c", "pack.threads=" + this.threads, "-c", "pack.windowMemory=" + windowMemory + "m");
+        }
+
+        /**
+         * Returns the reserved number of pack threads.
+         */
+        public int getThreads() {
+            return this.threads;
+        }
+
+        /**
+         * Returns the reserved memory in bytes.
+         */
+        public long getMemory() {
+            return this.memory;
+        }
+
+        @Override
+        public void close() {
+            synchronized (this) {
+                if (this.released) {
+                    return;
+                }
+                this.released = true;
+            }
+            CleaningScheduler.this.release(this);
+        }
+    }
+}
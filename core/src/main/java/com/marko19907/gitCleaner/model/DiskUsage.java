@@ -0,0 +1,42 @@
+package com.marko19907.gitCleaner.model;
+
+/**
+ * The size of a set of files, counted both by length and by the disk space they take up.
+ * Inside a .git folder, hard links to the same file are counted once. A file hard linked into several .git folders
+ * counts toward each of them, but only once toward the total of a scan, see {@link ScanResult}.
+ * Hard links outside .git folders are counted every time.
+ * <p>
+ * The allocated size is estimated by rounding every file up to whole blocks of its file store,
+ * the JDK does not expose the real block count. Sparse and file system compressed files are
+ * therefore over-estimated, which does not happen inside .git folders.
+ * @param apparentBytes  The combined length of the files in bytes
+ * @param allocatedBytes The combined disk space of the files in bytes
+ */
+public record DiskUsage(long apparentBytes, long allocatedBytes) {
+
+    /**
+     * The usage of no files at all.
+     */
+    public static final DiskUsage EMPTY = new DiskUsage(0, 0);
+
+    /**
+     * Returns the size counted the given way.
+     * @param mode How to count, not null
+     * @throws IllegalArgumentException If the given mode is null
+     */
+    public long get(SizeMode mode) {
+        if (mode == null) {
+            throw new IllegalArgumentException("The given mode can not be null!");
+        }
+        return mode == SizeMode.ALLOCATED ? this.allocatedBytes : this.apparentBytes;
+    }
+
+    /**
+     * Returns the given file length rounded up to whole blocks of the given size.
+     * @param length    The length of the file in bytes
+     * @param blockSize The block size of the file store in bytes, positive
+     */
+    public static long allocated(long length, long blockSize) {
+        return (length + blockSize - 1) / blockSize * blockSize;
+    }
+}
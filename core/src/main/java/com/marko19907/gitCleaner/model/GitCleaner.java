@@ -0,0 +1,1059 @@
+package com.marko19907.gitCleaner.model;
+
+import com.marko19907.gitCleaner.metrics.CleanerMetrics;
+import com.marko19907.gitCleaner.metrics.GitMaintenanceEvent;
+import com.marko19907.gitCleaner.utilities.CleaningInterruptedException;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * The model class, receives input from the controller and manages the data.
+ */
+public class GitCleaner {
+
+    /**
+     * The default git executable, looked up on the PATH.
+     */
+    public static final String DEFAULT_GIT_EXECUTABLE = "git";
+
+    /**
+     * The git config arguments that keep git's housekeeping in the foreground. By default an automatic gc or
+     * maintenance run forks itself into the background and exits right away, the process would then be reported
+     * as done and measured while git is still repacking, its reservation would be released early and cancelling
+     * could not reach it.
+     */
+    private static final List<String> NO_DETACH_ARGUMENTS =
+            List.of("-c", "gc.autoDetach=false", "-c", "maintenance.autoDetach=false");
+
+    /**
+     * The default maximum time a single git process is allowed to run.
+     */
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofHours(1);
+
+    /**
+     * How long the cleaning loop waits for a git process to finish before checking for newly found folders.
+     */
+    private static final long DISCOVERY_POLL_MILLIS = 50;
+
+    /**
+     * The previous size.
+     */
+    private volatile long sizeBefore;
+
+    /**
+     * The size of the files hard linked into more than one .git folder, beyond their first count.
+     */
+    private volatile long sharedSizeBefore;
+
+    /**
+     * The input directories to clean, resolved to real paths, distinct and not nested in each other.
+     */
+    private final List<File> inputDirectories;
+
+    /**
+     * The options used to scan the input directories.
+     */
+    private final ScanOptions scanOptions;
+
+    /**
+     * The persistent index of the input directories, lets rescans skip unchanged directories.
+     */
+    private final ScanIndex scanIndex;
+
+    /**
+     * The bus the progress events are published on, progress is printed to the console if no one listens.
+     */
+    private final ProgressBus events;
+
+    /**
+     * The found git folders in the order they were found, grows while the analysis is running.
+     * Also guards the analysis state.
+     */
+    private final List<File> gitFolders;
+
+    /**
+     * True once the analysis of the input directories has been started.
+     */
+    private boolean analysisStarted;
+
+    /**
+     * True once the analysis of the input directories has finished.
+     */
+    private boolean analysisDone;
+
+    /**
+     * The maximum number of git processes that are allowed to run at the same time.
+     */
+    private int parallelism;
+
+    /**
+     * The thresholds under which a git folder is skipped as already optimal, null to clean every folder.
+     */
+    private SkipThresholds skipThresholds;
+
+    /**
+     * The policy that picks the maintenance strategy for each git folder.
+     */
+    private MaintenancePolicy maintenancePolicy;
+
+    /**
+     * True if the folders are only analyzed and no git process is started.
+     */
+    private boolean dryRun;
+
+    /**
+     * The scheduler that keeps the running git processes within a memory and CPU budget.
+     */
+    private CleaningScheduler scheduler;
+
+    /**
+     * The git executable, either a command on the PATH or an absolute path.
+     */
+    private String gitExecutable;
+
+    /**
+     * The git folders the user left out, they are not cleaned by a run.
+     */
+    private volatile Set<File> excludedFolders;
+
+    /**
+     * The size of each .git folder before cleaning, keyed by the git folder.
+     * A folder's size is recorded before the folder is added to the found ones, so a run never sees it unknown.
+     */
+    private final Map<File, Long> gitFolderSizesBefore;
+
+    /**
+     * The results of the last run, one per cleaned folder in the order they finished.
+     */
+    private final List<CleaningResult> results;
+
+    /**
+     * The maximum time a single git process is allowed to run.
+     */
+    private Duration timeout;
+
+    /**
+     * The metrics the scan and the cleaning runs report to.
+     */
+    private CleanerMetrics metrics;
+
+    /**
+     * The token that cancels the analysis and the inspection of the found folders.
+     */
+    private volatile CancellationToken analysisCancellation;
+
+    /**
+     * The token that cancels the cleaning, kept apart so a cleaning run can be cancelled
+     * without cancelling an analysis that is still running, and the other way round.
+     */
+    private volatile CancellationToken cleaningCancellation;
+
+    /**
+     * True if a run skips the folders the checkpoint journal lists as finished by an interrupted earlier run.
+     */
+    private boolean resume;
+
+    /**
+     * Constructor for GitCleaner objects.
+     * @param file The directory (File) to start from
+     * @throws IllegalArgumentException      If the given File is null
+     * @throws UnsupportedOperationException If the given File is not a directory
+     */
+    public GitCleaner(File file) {
+        this(file, new ScanOptions());
+    }
+
+    /**
+     * Constructor for GitCleaner objects.
+     * @param file    The directory (File) to start from
+     * @param options The options used to scan the directory, not null
+     * @throws IllegalArgumentException      If the given File or options are null
+     * @throws UnsupportedOperationException If the given File is not a directory
+     */
+    public GitCleaner(File file, ScanOptions options) {
+        this(Collections.singletonList(file), options);
+    }
+
+    /**
+     * Constructor for GitCleaner objects that cleans several directories in a single run,
+     * for example the source trees spread over several volumes of a host.
+     * Directories that are symlinked to or nested in another given directory are only scanned once,
+     * and the directories on different file stores are scanned in parallel.
+     * @param files   The directories (Files) to start from, not null or empty
+     * @param options The options used to scan the directories, not null
+     * @throws IllegalArgumentException      If the given List is null or empty, one of the Files is null
+     *                                       or the options are null
+     * @throws UnsupportedOperationException If one of the given Files is not a directory
+     */
+    public GitCleaner(List<File> files, ScanOptions options) {
+        if (files == null || files.isEmpty()) {
+            throw new IllegalArgumentException("The given files can not be null or empty!");
+        }
+        files.forEach(this::checkFile);
+        if (options == null) {
+            throw new IllegalArgumentException("The given options can not be null!");
+        }
+
+        this.inputDirectories = List.copyOf(GitFolderSearch.getDistinctRoots(files));
+        this.scanOptions = options;
+        this.scanIndex = ScanIndex.load(this.inputDirectories, options);
+        this.gitFolders = new ArrayList<>();
+        this.analysisStarted = false;
+        this.analysisDone = false;
+        this.parallelism = getDefaultParallelism();
+        this.skipThresholds = null;
+        this.maintenancePolicy = MaintenancePolicy.fixed(MaintenanceTier.AGGRESSIVE);
+        this.gitFolderSizesBefore = new ConcurrentHashMap<>();
+        this.gitExecutable = DEFAULT_GIT_EXECUTABLE;
+        this.scheduler = new CleaningScheduler();
+        this.dryRun = false;
+        this.results = Collections.synchronizedList(new ArrayList<>());
+        this.timeout = DEFAULT_TIMEOUT;
+        this.metrics = new CleanerMetrics();
+        this.analysisCancellation = new CancellationToken();
+        this.cleaningCancellation = new CancellationToken();
+        this.resume = false;
+        this.events = new ProgressBus();
+        this.excludedFolders = Collections.emptySet();
+    }
+
+    /**
+     * Analyzes the input directories, finds the git folders and measures the sizes before cleaning.
+     * The given Consumer is notified from the scanning threads as each git folder is found,
+     * {@link #run()} may be called from another thread before the analysis has finished.
+     * @param onGitFolderFound The Consumer to notify as git folders are found, null for none
+     * @throws IllegalStateException        If the analysis has already been started
+     * @throws CleaningInterruptedException If the analysis was cancelled
+     */
+    public void analyze(Consumer<File> onGitFolderFound) {
+        synchronized (this.gitFolders) {
+            if (this.analysisStarted) {
+                throw new IllegalStateException("The folder has already been analyzed!");
+            }
+            this.analysisStarted = true;
+        }
+        this.events.publish(new ProgressEvent.PhaseChanged(ProgressEvent.Phase.ANALYZING));
+
+        final SizeMode sizeMode = this.scanOptions.getSizeMode();
+        try {
+            // A folder is only reported once its .git folder has been read completely, so a run that starts
+            // cleaning it during the analysis has its real size and the scan is no longer reading it
+            final ScanResult scan = this.scan((folder, usage) -> {
+                this.gitFolderSizesBefore.put(folder, usage.get(sizeMode));
+                final int found;
+                synchronized (this.gitFolders) {
+                    this.gitFolders.add(folder);
+                    found = this.gitFolders.size();
+                }
+                if (onGitFolderFound != null) {
+                    onGitFolderFound.accept(folder);
+                }
+                this.events.publish(new ProgressEvent.RepositoryFound(folder, found));
+            });
+
+            this.sizeBefore = scan.getTotalSize(sizeMode);
+            this.sharedSizeBefore = scan.getSharedGitFoldersSize(sizeMode);
+        }
+        finally {
+            synchronized (this.gitFolders) {
+                this.analysisDone = true;
+            }
+        }
+    }
+
+    /**
+     * Analyzes the input directories, finds the git folders and measures the sizes before cleaning.
+     * @throws IllegalStateException        If the analysis has already been started
+     * @throws CleaningInterruptedException If the analysis was cancelled
+     */
+    public void analyze() {
+        this.analyze(null);
+    }
+
+    /**
+     * Runs the cleaning procedure on the found git folders, analyzes the input directories first if needed.
+     * Every folder gets a virtual thread of its own that mostly waits for git, while a semaphore limits
+     * how many git processes run at the same time, see {@link #setParallelism(int)}.
+     * If the analysis is still running, folders are cleaned as they are found until the analysis is done.
+     * Cancelling the token stops handing out folders and kills the running git processes.
+     * Every finished folder is recorded in the {@link CheckpointJournal}, see {@link #setResume(boolean)}.
+     * @throws CleaningInterruptedException If a git process could not be started or the cleaning was interrupted
+     *                                      or cancelled
+     */
+    public void run() {
+        final boolean analyzed;
+        synchronized (this.gitFolders) {
+            analyzed = this.analysisStarted;
+        }
+        if (!analyzed) {
+            this.analyze();
+        }
+
+        this.results.clear();
+        this.events.publish(new ProgressEvent.PhaseChanged(ProgressEvent.Phase.CLEANING));
+        final CheckpointJournal journal = this.openJournal();
+        final Map<File, CleaningResult> finishedBefore =
+                journal == null ? Collections.emptyMap() : journal.getFinished();
+        // Fair, so the folders get their turn roughly in the order they were submitted, the largest first
+        final Semaphore gitPermits = new Semaphore(this.parallelism, true);
+
+        // Every run owns its threads, closing the executor waits until the last of them has finished
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            final CompletionService<CleaningResult> completionService = new ExecutorCompletionService<>(executor);
+            try {
+                this.cleanAll(completionService, gitPermits, journal, finishedBefore);
+            }
+            finally {
+                // Folders still waiting for a permit are dropped and the running git processes are killed
+                executor.shutdownNow();
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CleaningInterruptedException(e.getMessage());
+        }
+        catch (ExecutionException e) {
+            throw new CleaningInterruptedException(e.getCause().getMessage());
+        }
+        finally {
+            this.closeJournal(journal);
+        }
+        this.events.publish(new ProgressEvent.PhaseChanged(ProgressEvent.Phase.FINISHED));
+
+        if (!this.events.hasListeners()) {
+            // The UI is not running, print to console
+            System.out.println("Cleaning done!");
+            System.out.println();
+            System.out.println("Cleaning report: ");
+            System.out.println(this.getCleaningReport());
+        }
+    }
+
+    /**
+     * Submits the found folders as they come in and collects their results until every folder is done.
+     * @param completionService The service that runs the folders and hands out their results
+     * @param gitPermits        The permits of the git processes
+     * @param journal           The journal to record the finished folders in, null if none
+     * @param finishedBefore    The folders an interrupted earlier run already finished, keyed by the folder
+     * @throws InterruptedException If the thread was interrupted while waiting for a folder
+     * @throws ExecutionException   If cleaning a folder failed
+     */
+    private void cleanAll(CompletionService<CleaningResult> completionService, Semaphore gitPermits,
+                          CheckpointJournal journal, Map<File, CleaningResult> finishedBefore)
+            throws InterruptedException, ExecutionException {
+        final Set<File> excluded = this.excludedFolders;
+        int seen = 0;
+        int submitted = 0;
+        int completed = 0;
+        int excludedCount = 0;
+
+        while (true) {
+            this.cleaningCancellation.throwIfCancelled();
+            final List<File> newFolders;
+            final boolean done;
+            synchronized (this.gitFolders) {
+                newFolders = new ArrayList<>(this.gitFolders.subList(seen, this.gitFolders.size()));
+                done = this.analysisDone;
+            }
+
+            // The largest folders take the longest, starting them first lets the batch finish sooner
+            newFolders.sort(Comparator.comparingLong(this::getGitFolderSizeBefore).reversed());
+            seen += newFolders.size();
+            for (File folder : newFolders) {
+                if (excluded.contains(folder)) {
+                    excludedCount++;
+                    continue;
+                }
+                submitted++;
+                final CleaningResult previous = finishedBefore.get(folder);
+                if (previous != null) {
+                    // Finished by an interrupted earlier run of this generation, its result is reused
+                    this.results.add(previous);
+                    completed++;
+                    this.reportProgress(previous, completed, this.getFoundFolderNumber() - excludedCount);
+                    continue;
+                }
+                this.metrics.folderQueued();
+                completionService.submit(() -> this.cleanQueuedFolder(folder, gitPermits));
+            }
+
+            if (done && completed == submitted) {
+                this.completeJournal(journal);
+                break;
+            }
+
+            // Progress is reported in the order the folders finish, not in the order they were submitted.
+            // The wait is bounded so new folders and cancellation are noticed while git is running
+            final Future<CleaningResult> finished =
+                    completionService.poll(DISCOVERY_POLL_MILLIS, TimeUnit.MILLISECONDS);
+            if (finished != null) {
+                final CleaningResult result = finished.get();
+                this.results.add(result);
+                this.recordInJournal(journal, result);
+                completed++;
+                this.reportProgress(result, completed, this.getFoundFolderNumber() - excludedCount);
+            }
+            else {
+                // Nothing finished while git is running, the records of the folders before it are forced in time
+                this.syncJournalIfDue(journal);
+            }
+        }
+    }
+
+    /**
+     * Opens the checkpoint journal of the input directories, continuing an incomplete generation when resuming.
+     * @return The journal, null for a dry run or if it could not be opened
+     */
+    private CheckpointJournal openJournal() {
+        if (this.dryRun) {
+            return null;
+        }
+        try {
+            return CheckpointJournal.open(this.inputDirectories, this.resume);
+        }
+        catch (IOException e) {
+            // The journal only makes the run resumable, the cleaning works without it
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Records the given result in the given journal, if there is one.
+     * @param journal The journal, null if none
+     * @param result  The result to record
+     */
+    private void recordInJournal(CheckpointJournal journal, CleaningResult result) {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.record(result);
+        }
+        catch (IOException e) {
+            // The folder is cleaned again by a resumed run, nothing is lost
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Forces the unsynced records of the given journal to the disk once its sync interval has passed.
+     * @param journal The journal, null if none
+     */
+    private void syncJournalIfDue(CheckpointJournal journal) {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.syncIfDue();
+        }
+        catch (IOException e) {
+            // The folders are cleaned again by a resumed run, nothing is lost
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Marks the generation of the given journal as complete once every folder was cleaned or skipped.
+     * A generation with failed folders stays open, so resuming retries only those.
+     * @param journal The journal, null if none
+     */
+    private void completeJournal(CheckpointJournal journal) {
+        if (journal == null || !this.getFailedFolders().isEmpty()) {
+            return;
+        }
+        try {
+            journal.complete();
+        }
+        catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Forces the given journal to the disk and closes it.
+     * @param journal The journal, null if none
+     */
+    private void closeJournal(CheckpointJournal journal) {
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.close();
+        }
+        catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Reports a finished folder on the progress bus, or to the console if no one listens.
+     * @param result    The result of the finished folder
+     * @param completed The number of cleaned folders
+     * @param total     The number of found folders
+     */
+    private void reportProgress(CleaningResult result, int completed, int total) {
+        if (this.events.hasListeners()) {
+            this.events.publish(new ProgressEvent.RepositoryFinished(result, completed, total));
+        }
+        else {
+            // The UI is not running, print to console
+            System.out.println("Progress: " + completed + "/" + total);
+        }
+    }
+
+    /**
+     * Cleans the given folder once a git permit is free, keeping the worker metrics up to date.
+     * @param folder     The git folder to clean
+     * @param gitPermits The permits of the git processes
+     * @return The result of cleaning the folder
+     * @throws IOException          If the git process could not be started
+     * @throws InterruptedException If the thread was interrupted while waiting for a permit or for git
+     */
+    private CleaningResult cleanQueuedFolder(File folder, Semaphore gitPermits)
+            throws IOException, InterruptedException {
+        try {
+            gitPermits.acquire();
+        }
+        catch (InterruptedException e) {
+            // The run stopped before a permit was free, the folder was never started
+            this.metrics.foldersDropped(1);
+            throw e;
+        }
+
+        try {
+            this.metrics.workerStarted();
+            try {
+                return this.cleanFolder(folder);
+            }
+            finally {
+                this.metrics.workerFinished();
+            }
+        }
+        finally {
+            gitPermits.release();
+        }
+    }
+
+    /**
+     * Runs the maintenance strategy the policy picks in the given folder and waits for it to finish.
+     * @param folder The git folder to clean
+     * @return The result of cleaning the folder
+     * @throws IOException          If the git process could not be started
+     * @throws InterruptedException If the worker was interrupted while waiting for git
+     */
+    private CleaningResult cleanFolder(File folder) throws IOException, InterruptedException {
+        this.cleaningCancellation.throwIfCancelled();
+        final long sizeBefore = this.getGitFolderSizeBefore(folder);
+
+        final RepositoryStats stats = this.readStats(folder);
+
+        if (this.isAlreadyOptimal(stats)) {
+            return new CleaningResult(folder, sizeBefore, sizeBefore, Duration.ZERO, null, -1,
+                    CleaningResult.Status.SKIPPED);
+        }
+
+        final MaintenanceStrategy strategy = this.selectStrategy(folder, stats);
+        if (this.dryRun) {
+            return new CleaningResult(folder, sizeBefore, sizeBefore, Duration.ZERO, strategy.getName(), -1,
+                    CleaningResult.Status.PLANNED);
+        }
+        final ProcessOutcome outcome;
+        final GitMaintenanceEvent event = new GitMaintenanceEvent();
+
+        try (CleaningScheduler.Reservation reservation = this.scheduler.acquire(sizeBefore, strategy)) {
+            // git is started directly in the folder, no shell is involved so any path works as is
+            final List<String> command = new ArrayList<>();
+            command.add(this.gitExecutable);
+            command.addAll(NO_DETACH_ARGUMENTS);
+            command.addAll(reservation.getConfigArguments());
+            command.addAll(strategy.getArguments());
+
+            final ProcessSupervisor supervisor =
+                    new ProcessSupervisor(this.timeout, ProcessSupervisor.DEFAULT_OUTPUT_LIMIT);
+            this.events.publish(new ProgressEvent.RepositoryStarted(folder));
+            this.metrics.gitProcessStarted();
+            event.begin();
+            try {
+                outcome = supervisor.run(command, folder, this.cleaningCancellation);
+            }
+            finally {
+                event.end();
+                this.metrics.gitProcessExited();
+            }
+        }
+
+        final CleaningResult.Status status;
+        if (outcome.isSuccess()) {
+            status = CleaningResult.Status.CLEANED;
+        }
+        else {
+            status = outcome.isTimedOut() ? CleaningResult.Status.TIMED_OUT : CleaningResult.Status.FAILED;
+            if (!this.events.hasListeners()) {
+                // The UI is not running, print to console
+                System.out.println("Failed: " + folder.getAbsolutePath() + " ("
+                        + (outcome.isTimedOut() ? "timed out" : "exit code " + outcome.getExitCode()) + ")");
+                System.out.println(outcome.getError().strip());
+            }
+        }
+
+        // Only this folder's .git folder is measured again, the rest of the tree has not changed
+        long sizeAfter;
+        try {
+            sizeAfter = GitFolderSearch.measureGitFolderUsage(folder, this.cleaningCancellation)
+                    .get(this.scanOptions.getSizeMode());
+        }
+        catch (IOException e) {
+            sizeAfter = sizeBefore;
+        }
+
+        this.metrics.gitProcessFinished(folder, outcome.getDuration(), outcome.isSuccess(), sizeBefore - sizeAfter);
+        if (sizeAfter < sizeBefore) {
+            this.events.publish(new ProgressEvent.BytesReclaimed(folder, sizeBefore - sizeAfter));
+        }
+        if (event.shouldCommit()) {
+            event.folder = folder.getAbsolutePath();
+            event.strategy = strategy.getName();
+            event.exitCode = outcome.getExitCode();
+            event.timedOut = outcome.isTimedOut();
+            event.sizeBefore = sizeBefore;
+            event.sizeAfter = sizeAfter;
+            event.commit();
+        }
+
+        return new CleaningResult(folder, sizeBefore, sizeAfter, outcome.getDuration(), strategy.getName(),
+                outcome.getExitCode(), status);
+    }
+
+    /**
+     * Returns true if skipping is enabled and the given statistics are under all skip thresholds.
+     * A folder whose statistics could not be read is never skipped.
+     * @param stats The statistics of the git folder, null if they could not be read
+     */
+    private boolean isAlreadyOptimal(RepositoryStats stats) {
+        return this.skipThresholds != null && stats != null && this.skipThresholds.isOptimal(stats, Instant.now());
+    }
+
+    /**
+     * Returns the maintenance strategy the policy picks for the given git folder.
+     * A folder whose statistics could not be read gets a standard gc, the policy has nothing to go on.
+     * @param folder The git folder
+     * @param stats  The statistics of the git folder, null if they could not be read
+     */
+    private MaintenanceStrategy selectStrategy(File folder, RepositoryStats stats) {
+        if (stats == null) {
+            return MaintenanceTier.STANDARD;
+        }
+        return this.maintenancePolicy.select(stats, this.getGitFolderSizeBefore(folder));
+    }
+
+    /**
+     * Returns the size of the given folder's .git folder before cleaning, 0 if it has not been measured yet.
+     * @param folder The git folder
+     */
+    private long getGitFolderSizeBefore(File folder) {
+        return this.gitFolderSizesBefore.getOrDefault(folder, 0L);
+    }
+
+    /**
+     * Sets the maximum time a single git process is allowed to run, it is killed once the time is up.
+     * @param timeout The timeout, not null and positive
+     * @throws IllegalArgumentException If the given timeout is null, zero or negative
+     */
+    public void setTimeout(Duration timeout) {
+        // Guard condition, a zero timeout would kill every process right away
+        if (timeout == null || timeout.isNegative() || timeout.isZero()) {
+            throw new IllegalArgumentException("The timeout can not be null, zero or negative!");
+        }
+        this.timeout = timeout;
+    }
+
+    /**
+     * Sets the git folders that are left out of the next runs, every other found folder is cleaned.
+     * Folders found after this call are cleaned unless they are in the given Set.
+     * @param excludedFolders The git folders to leave out, not null
+     * @throws IllegalArgumentException If the given Set is null
+     */
+    public void setExcludedFolders(Set<File> excludedFolders) {
+        // Guard condition
+        if (excludedFolders == null) {
+            throw new IllegalArgumentException("The given set can not be null!");
+        }
+        this.excludedFolders = Set.copyOf(excludedFolders);
+    }
+
+    /**
+     * Reads the object database statistics of every found git folder and publishes them on the progress bus
+     * together with the size of its .git folder, one {@link ProgressEvent.RepositoryMeasured} per folder.
+     * The folders are read concurrently on virtual threads, a few of them at a time.
+     * Meant for showing the folders before cleaning, the cleaning itself reads the statistics again.
+     * @throws IllegalStateException        If the analysis has not finished yet
+     * @throws CleaningInterruptedException If the inspection was interrupted or cancelled
+     */
+    public void inspectFolders() {
+        final List<File> folders;
+        synchronized (this.gitFolders) {
+            if (!this.analysisDone) {
+                throw new IllegalStateException("The folder has not been analyzed yet!");
+            }
+            folders = new ArrayList<>(this.gitFolders);
+        }
+        this.events.publish(new ProgressEvent.PhaseChanged(ProgressEvent.Phase.INSPECTING));
+
+        final Semaphore readers = new Semaphore(GitFolderSearch.getDefaultParallelism());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (File folder : folders) {
+                executor.submit(() -> {
+                    readers.acquire();
+                    try {
+                        if (!this.analysisCancellation.isCancelled()) {
+                            this.events.publish(new ProgressEvent.RepositoryMeasured(folder,
+                                    this.getGitFolderSizeBefore(folder), this.readStats(folder)));
+                        }
+                    }
+                    finally {
+                        readers.release();
+                    }
+                    return null;
+                });
+            }
+        }
+        this.analysisCancellation.throwIfCancelled();
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CleaningInterruptedException("Interrupted");
+        }
+    }
+
+    /**
+     * Returns the object database statistics of the given folder, null if they could not be read.
+     * @param folder The git folder
+     */
+    private RepositoryStats readStats(File folder) {
+        try {
+            return RepositoryStats.read(folder);
+        }
+        catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the git folders whose git process failed or timed out during the last run.
+     */
+    public Set<File> getFailedFolders() {
+        final Set<File> failed = new LinkedHashSet<>();
+        for (CleaningResult result : this.getResults()) {
+            if (result.status() == CleaningResult.Status.FAILED || result.status() == CleaningResult.Status.TIMED_OUT) {
+                failed.add(result.folder());
+            }
+        }
+        return failed;
+    }
+
+    /**
+     * Sets whether the run is a dry run, which decides what would be done to each folder without starting git.
+     * @param dryRun True for a dry run
+     */
+    public void setDryRun(boolean dryRun) {
+        this.dryRun = dryRun;
+    }
+
+    /**
+     * Sets the git executable used to clean the folders.
+     * @param gitExecutable A command on the PATH or an absolute path, not null or blank
+     * @throws IllegalArgumentException If the given executable is null or blank
+     */
+    public void setGitExecutable(String gitExecutable) {
+        if (gitExecutable == null || gitExecutable.isBlank()) {
+            throw new IllegalArgumentException("The given git executable can not be null or blank!");
+        }
+        this.gitExecutable = gitExecutable;
+    }
+
+    /**
+     * Sets the policy that picks the maintenance strategy for each git folder,
+     * by default every folder gets an aggressive gc.
+     * @param maintenancePolicy The policy to use, not null
+     * @throws IllegalArgumentException If the given policy is null
+     */
+    public void setMaintenancePolicy(MaintenancePolicy maintenancePolicy) {
+        if (maintenancePolicy == null) {
+            throw new IllegalArgumentException("The given policy can not be null!");
+        }
+        this.maintenancePolicy = maintenancePolicy;
+    }
+
+    /**
+     * Sets the thresholds under which a git folder is skipped as already optimal.
+     * @param skipThresholds The thresholds to use, null to clean every folder
+     */
+    public void setSkipThresholds(SkipThresholds skipThresholds) {
+        this.skipThresholds = skipThresholds;
+    }
+
+    /**
+     * Returns the number of git folders skipped as already optimal during the last run.
+     */
+    public int getSkippedFolderNumber() {
+        return (int) this.getReport().count(CleaningResult.Status.SKIPPED);
+    }
+
+    /**
+     * Sets the maximum number of git processes that are allowed to run at the same time.
+     * @param parallelism The parallelism level, must be positive
+     * @throws IllegalArgumentException If the given parallelism is less than 1
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("The parallelism must be at least 1!");
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Returns the maximum number of git processes that are allowed to run at the same time.
+     */
+    public int getParallelism() {
+        return this.parallelism;
+    }
+
+    /**
+     * Returns the default parallelism, one git process per available core.
+     * How many of them actually run git at the same time is decided by the {@link CleaningScheduler}.
+     */
+    public static int getDefaultParallelism() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Sets the scheduler that keeps the running git processes within a memory and CPU budget.
+     * @param scheduler The scheduler to use, not null
+     * @throws IllegalArgumentException If the given scheduler is null
+     */
+    public void setScheduler(CleaningScheduler scheduler) {
+        if (scheduler == null) {
+            throw new IllegalArgumentException("The given scheduler can not be null!");
+        }
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Sets the metrics the scan and the cleaning runs report to, so several cleaners can share them.
+     * @param metrics The metrics to report to, not null
+     * @throws IllegalArgumentException If the given metrics are null
+     */
+    public void setMetrics(CleanerMetrics metrics) {
+        if (metrics == null) {
+            throw new IllegalArgumentException("The given metrics can not be null!");
+        }
+        this.metrics = metrics;
+    }
+
+    /**
+     * Returns the metrics the scan and the cleaning runs report to.
+     */
+    public CleanerMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    /**
+     * Sets whether a run resumes the last, interrupted run of the input directories.
+     * When resuming, the folders the checkpoint journal lists as cleaned or skipped are not cleaned again
+     * and their journaled results are reported instead. Otherwise the journal is started over.
+     * @param resume True to resume
+     */
+    public void setResume(boolean resume) {
+        this.resume = resume;
+    }
+
+    /**
+     * Sets the token that cancels both the analysis and the cleaning, a fresh token lets a cancelled cleaner
+     * run again.
+     * @param cancellation The token to use, not null
+     * @throws IllegalArgumentException If the given token is null
+     */
+    public void setCancellationToken(CancellationToken cancellation) {
+        this.setAnalysisCancellationToken(cancellation);
+        this.setCleaningCancellationToken(cancellation);
+    }
+
+    /**
+     * Sets the token that cancels the analysis and the inspection of the found folders,
+     * the cleaning is not affected by it.
+     * @param cancellation The token to use, not null
+     * @throws IllegalArgumentException If the given token is null
+     */
+    public void setAnalysisCancellationToken(CancellationToken cancellation) {
+        // Guard condition
+        if (cancellation == null) {
+            throw new IllegalArgumentException("The given cancellation token can not be null!");
+        }
+        this.analysisCancellation = cancellation;
+    }
+
+    /**
+     * Sets the token that cancels the cleaning, a fresh token lets a cancelled cleaning run again.
+     * An analysis that is still running is not affected by it.
+     * @param cancellation The token to use, not null
+     * @throws IllegalArgumentException If the given token is null
+     */
+    public void setCleaningCancellationToken(CancellationToken cancellation) {
+        // Guard condition
+        if (cancellation == null) {
+            throw new IllegalArgumentException("The given cancellation token can not be null!");
+        }
+        this.cleaningCancellation = cancellation;
+    }
+
+    /**
+     * Cancels the running analysis and cleaning: no further directory is read, no further git process is
+     * started and the running ones are killed together with their children.
+     */
+    public void cancel() {
+        this.analysisCancellation.cancel();
+        this.cleaningCancellation.cancel();
+    }
+
+    /**
+     * Returns the input directories, resolved to real paths, distinct and not nested in each other.
+     */
+    public List<File> getInputDirectories() {
+        return this.inputDirectories;
+    }
+
+    /**
+     * Returns the bus the progress events of the analysis and the cleaning are published on.
+     * The events are published from the scanning and cleaning threads, see {@link ProgressBus}.
+     * Progress is printed to the console as long as no listener is subscribed.
+     */
+    public ProgressBus getEvents() {
+        return this.events;
+    }
+
+    /**
+     * Returns the results of the last run, one per cleaned folder in the order they finished.
+     */
+    public List<CleaningResult> getResults() {
+        synchronized (this.results) {
+            return new ArrayList<>(this.results);
+        }
+    }
+
+    /**
+     * Returns the report of the last run, computed from the per-folder results.
+     */
+    public CleaningReport getReport() {
+        // Pruning is on by default, so the total covers the files the scan read rather than the whole tree
+        return new CleaningReport(this.getResults(), this.sizeBefore, this.sharedSizeBefore);
+    }
+
+    /**
+     * Returns the cleaning report as a single String.
+     */
+    public String getCleaningReport() {
+        return this.getReport().toString();
+    }
+
+    /**
+     * Scans the input directories with the persistent index and saves the updated index.
+     * @param onGitFolderFound The BiConsumer to notify as git folders are found and measured, null for none
+     */
+    private ScanResult scan(BiConsumer<File, DiskUsage> onGitFolderFound) {
+        final GitFolderSearch search = new GitFolderSearch(this.scanOptions);
+        search.setIndex(this.scanIndex);
+        search.setOnGitFolderFound(onGitFolderFound);
+        search.setMetrics(this.metrics);
+        search.setCancellationToken(this.analysisCancellation);
+        final ScanResult result = search.scan(this.inputDirectories);
+
+        try {
+            this.scanIndex.save();
+        }
+        catch (IOException e) {
+            // The index only speeds up the next scan, the result is still valid without it
+            e.printStackTrace();
+        }
+        return result;
+    }
+
+    /**
+     * Returns a Set of all git folders found so far.
+     */
+    private Set<File> getGitFolders() {
+        synchronized (this.gitFolders) {
+            return new LinkedHashSet<>(this.gitFolders);
+        }
+    }
+
+    /**
+     * Returns the found git folders as a single String.
+     */
+    public String getGitFoldersString() {
+        final Set<File> folders = this.getGitFolders();
+        // Guard condition
+        if (folders.isEmpty()) {
+            return "No git folders found";
+        }
+
+        final StringBuilder builder = new StringBuilder();
+        builder.append("Found ").append(this.getFoundFolderNumber()).append(" git ");
+        builder.append((this.getFoundFolderNumber() > 1 ? "projects" : "project"));
+        builder.append(" in the given folder");
+        builder.append("\n");
+        builder.append("\n");
+
+        folders.forEach(folder -> {
+            if (folder != null) {
+                builder.append(folder.getAbsolutePath());
+                builder.append("\n");
+            }
+        });
+
+        return builder.toString();
+    }
+
+    /**
+     * Returns the number of git folders found so far.
+     */
+    public int getFoundFolderNumber() {
+        synchronized (this.gitFolders) {
+            return this.gitFolders.size();
+        }
+    }
+
+    /**
+     * Checks if the given File is valid, must be a directory and not null.
+     * @param file The File to check, not null
+     * @throws IllegalArgumentException      If the given File is null
+     * @throws UnsupportedOperationException If the given File is not a directory
+     */
+    private void checkFile(File file) {
+        if (file == null || !file.exists()) {
+            throw new IllegalArgumentException("The given file can not be null!");
+        }
+        if (!file.isDirectory()) {
+            throw new UnsupportedOperationException("The file must be a directory!");
+        }
+    }
+}
@@ -0,0 +1,1105 @@
+package com.marko19907.gitCleaner.model;
+
+import com.marko19907.gitCleaner.metrics.CleanerMetrics;
+import com.marko19907.gitCleaner.metrics.ScanEvent;
+import com.marko19907.gitCleaner.utilities.CleaningInterruptedException;
+import com.marko19907.gitCleaner.utilities.Utilities;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileStore;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * The class contains the git folder search algorithm.
+ */
+public class GitFolderSearch {
+
+    /**
+     * The name of the folder that marks a git project.
+     */
+    private static final String GIT_FOLDER_NAME = ".git";
+
+    /**
+     * Marks a directory modification time that has not been read yet.
+     */
+    private static final long UNKNOWN_TIME = Long.MIN_VALUE;
+
+    /**
+     * The block size assumed when the file store does not report one.
+     */
+    private static final long DEFAULT_BLOCK_SIZE = 4096;
+
+    /**
+     * The number of directories that are allowed to be read at the same time on each file store.
+     */
+    private int parallelism;
+
+    /**
+     * The options that control how far the search descends.
+     */
+    private final ScanOptions options;
+
+    /**
+     * The persistent index used to skip unchanged directories, null if every directory is read.
+     */
+    private ScanIndex index;
+
+    /**
+     * A BiConsumer, notified from the scanning threads each time a .git folder has been read completely.
+     */
+    private BiConsumer<File, DiskUsage> onGitFolderFound;
+
+    /**
+     * The metrics the scans report to.
+     */
+    private CleanerMetrics metrics;
+
+    /**
+     * The token that cancels the scans.
+     */
+    private CancellationToken cancellation;
+
+    /**
+     * Default no-arg constructor, uses the default scan options.
+     */
+    public GitFolderSearch() {
+        this(new ScanOptions());
+    }
+
+    /**
+     * Constructor for GitFolderSearch objects.
+     * @param options The options that control how far the search descends, not null
+     * @throws IllegalArgumentException If the given options are null
+     */
+    public GitFolderSearch(ScanOptions options) {
+        if (options == null) {
+            throw new IllegalArgumentException("The given options can not be null!");
+        }
+        this.options = options;
+        this.parallelism = getDefaultParallelism();
+        this.index = null;
+        this.onGitFolderFound = null;
+        this.metrics = new CleanerMetrics();
+        this.cancellation = new CancellationToken();
+    }
+
+    /**
+     * Returns the default scan parallelism, directory reads mostly wait for I/O
+     * and a waiting virtual thread is cheap, so many more readers than cores are used.
+     */
+    public static int getDefaultParallelism() {
+        return Runtime.getRuntime().availableProcessors() * 8;
+    }
+
+    /**
+     * Returns a Set of all folders that contain a .git folder inside recursively.
+     * @throws IllegalArgumentException If the given path is null
+     */
+    public Set<File> getGitFolders(String givenPath) {
+        // Guard condition
+        if (givenPath == null) {
+            throw new IllegalArgumentException("The given path can not be null!");
+        }
+
+        File file = new File(givenPath);
+
+        if (file.exists() && file.isDirectory()) {
+            return this.scan(file).getGitFolders();
+        }
+
+        return Collections.emptySet();
+    }
+
+    /**
+     * Walks the given directory once and collects the total size, the size of every .git folder
+     * and the git project folders at the same time. See {@link #scan(Collection)}.
+     * @param directory The directory to scan, not null
+     * @throws IllegalArgumentException     If the given directory is null
+     * @throws CleaningInterruptedException If the scan was cancelled or the calling thread was interrupted,
+     *                                      no directory is read after that
+     */
+    public ScanResult scan(File directory) {
+        // Guard condition
+        if (directory == null) {
+            throw new IllegalArgumentException("The given directory can not be null!");
+        }
+        return this.scan(List.of(directory));
+    }
+
+    /**
+     * Walks the given directories once and collects the total size, the size of every .git folder
+     * and the git project folders at the same time. Every file is looked at exactly once,
+     * a single attribute read gives both its apparent and its allocated size.
+     * Overlapping and symlinked directories are only walked once, see {@link #getDistinctRoots(Collection)}.
+     * <p>
+     * The trees are traversed in parallel, so many blocking directory reads overlap. The directories are grouped
+     * by the file store they are on and every file store gets a worklist and a fixed number of virtual worker
+     * threads of its own, so a slow network volume does not hold back the reads of a fast local disk.
+     * The number of threads does not grow with the tree, a directory is only a small entry in the worklist.
+     * @param directories The directories to scan, not null or empty
+     * @throws IllegalArgumentException     If the given directories are null or empty, or one of them is null
+     * @throws CleaningInterruptedException If the scan was cancelled or the calling thread was interrupted,
+     *                                      no directory is read after that
+     */
+    public ScanResult scan(Collection<File> directories) {
+        final List<File> roots = getDistinctRoots(directories);
+
+        // Every scan owns its threads, closing the executor waits until the last worker has finished
+        final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        final List<ScanState> states = new ArrayList<>();
+        // Shared by the file stores, a followed link may lead from one of them into another
+        final Set<Object> visitedDirectories = ConcurrentHashMap.newKeySet();
+        final ScanEvent event = new ScanEvent();
+        final long directoriesBefore = this.metrics.getDirectoriesVisited();
+        final long filesBefore = this.metrics.getFilesVisited();
+        final long statCallsBefore = this.metrics.getStatCalls();
+        this.metrics.scanStarted();
+        event.begin();
+
+        try (executor) {
+            final List<Future<?>> workers = new ArrayList<>();
+            for (List<Path> volumeRoots : groupByFileStore(roots).values()) {
+                final Path volume = volumeRoots.get(0);
+                final ScanState state = new ScanState(this.options, this.index, this.onGitFolderFound, this.metrics,
+                        this.cancellation, getBlockSize(volume), getFileSystem(volume), visitedDirectories,
+                        this.parallelism);
+                states.add(state);
+
+                final List<DirectoryTask> tasks = new ArrayList<>(volumeRoots.size());
+                for (Path root : volumeRoots) {
+                    tasks.add(new DirectoryTask(root, null, state, UNKNOWN_TIME));
+                }
+                state.push(tasks);
+                for (int i = 0; i < this.parallelism; i++) {
+                    workers.add(executor.submit(state::work));
+                }
+            }
+            awaitAll(workers, () -> states.forEach(ScanState::stop));
+        }
+        finally {
+            this.metrics.scanFinished();
+            event.end();
+        }
+
+        final Map<File, DiskUsage> gitFolderUsages = new HashMap<>();
+        long totalSize = 0;
+        long totalAllocated = 0;
+        long sharedSize = 0;
+        long sharedAllocated = 0;
+        boolean stopped = false;
+        for (ScanState state : states) {
+            // The roots do not overlap, so every project was found by exactly one file store
+            state.gitFolderSizes.forEach((project, usage) -> gitFolderUsages.put(project, usage.toDiskUsage()));
+            totalSize += state.totalSize.sum();
+            totalAllocated += state.totalAllocated.sum();
+            sharedSize += state.sharedSize.sum();
+            sharedAllocated += state.sharedAllocated.sum();
+            stopped |= state.stopped;
+        }
+
+        if (event.shouldCommit()) {
+            event.directory = Utilities.joinPaths(roots);
+            event.directoriesVisited = this.metrics.getDirectoriesVisited() - directoriesBefore;
+            event.filesVisited = this.metrics.getFilesVisited() - filesBefore;
+            event.statCalls = this.metrics.getStatCalls() - statCallsBefore;
+            event.gitFoldersFound = gitFolderUsages.size();
+            event.totalSize = totalSize;
+            event.commit();
+        }
+        // The tasks stop early once cancelled, what they found so far is incomplete
+        this.cancellation.throwIfCancelled();
+        if (stopped) {
+            throw new CleaningInterruptedException("Interrupted");
+        }
+
+        return new ScanResult(new DiskUsage(totalSize, totalAllocated), new DiskUsage(sharedSize, sharedAllocated),
+                gitFolderUsages);
+    }
+
+    /**
+     * Returns the given directories resolved to their real paths, without duplicates and without the directories
+     * that are inside another one of them, sorted by path. Symlinked and overlapping directories resolve
+     * to the same real trees, so scanning the returned directories reads every subtree once.
+     * A directory whose real path can not be resolved is kept as its absolute path.
+     * @param directories The directories, not null or empty
+     * @throws IllegalArgumentException If the given directories are null or empty, or one of them is null
+     */
+    public static List<File> getDistinctRoots(Collection<File> directories) {
+        // Guard condition
+        if (directories == null || directories.isEmpty()) {
+            throw new IllegalArgumentException("The given directories can not be null or empty!");
+        }
+
+        final List<Path> resolved = new ArrayList<>(directories.size());
+        for (File directory : directories) {
+            if (directory == null) {
+                throw new IllegalArgumentException("The given directory can not be null!");
+            }
+            final Path path = directory.getAbsoluteFile().toPath().normalize();
+            try {
+                resolved.add(path.toRealPath());
+            }
+            catch (IOException e) {
+                // A missing directory has nothing to scan, it is read and skipped like any unreadable one
+                resolved.add(path);
+            }
+        }
+        Collections.sort(resolved);
+
+        final List<Path> roots = new ArrayList<>(resolved.size());
+        for (Path path : resolved) {
+            // A path starts with itself, so duplicates are dropped as well
+            if (roots.stream().noneMatch(path::startsWith)) {
+                roots.add(path);
+            }
+        }
+
+        final List<File> distinct = new ArrayList<>(roots.size());
+        for (Path root : roots) {
+            distinct.add(root.toFile());
+        }
+        return distinct;
+    }
+
+    /**
+     * Groups the given directories by the file store they are on, in the given order.
+     * A directory whose file store can not be read gets a group of its own.
+     * @param directories The directories to group
+     */
+    private static Map<Object, List<Path>> groupByFileStore(List<File> directories) {
+        final Map<Object, List<Path>> groups = new LinkedHashMap<>();
+        for (File directory : directories) {
+            final Path path = directory.toPath();
+            Object key;
+            try {
+                key = Files.getFileStore(path);
+            }
+            catch (IOException e) {
+                key = path;
+            }
+            groups.computeIfAbsent(key, store -> new ArrayList<>()).add(path);
+        }
+        return groups;
+    }
+
+    /**
+     * Returns an identifier of the file system the given path is on, the device number where it can be read
+     * with a single attribute read, the file store otherwise. Links are followed.
+     * @param path The path to look up
+     * @return The identifier, null if it can not be read
+     */
+    private static Object getFileSystem(Path path) {
+        try {
+            return Files.getAttribute(path, "unix:dev");
+        }
+        catch (UnsupportedOperationException | IllegalArgumentException e) {
+            // Not a unix file system, the file store is looked up instead
+        }
+        catch (IOException e) {
+            return null;
+        }
+
+        try {
+            return Files.getFileStore(path);
+        }
+        catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Waits until all the given futures are done. If the calling thread is interrupted or a task failed,
+     * the given action is run first so the remaining tasks return early, and a failure is rethrown.
+     * @param futures The futures to wait for
+     * @param onStop  The action that stops the remaining tasks
+     */
+    private static void awaitAll(List<Future<?>> futures, Runnable onStop) {
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            }
+            catch (InterruptedException e) {
+                // The calling thread was interrupted, the remaining tasks return early
+                onStop.run();
+                Thread.currentThread().interrupt();
+                return;
+            }
+            catch (ExecutionException e) {
+                onStop.run();
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                if (e.getCause() instanceof Error cause) {
+                    throw cause;
+                }
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Returns the size of the given git project's .git folder in bytes, read with a single sequential walk.
+     * Meant for re-measuring one project after it has been cleaned, without scanning the whole tree again.
+     * @param project The git project folder, the one that contains the .git folder
+     * @throws IllegalArgumentException If the given project is null
+     * @throws IOException              If the .git folder could not be read
+     */
+    public static long measureGitFolder(File project) throws IOException {
+        return measureGitFolder(project, new CancellationToken());
+    }
+
+    /**
+     * Returns the size of the given git project's .git folder in bytes, read with a single sequential walk
+     * that stops as soon as the given token is cancelled.
+     * @param project      The git project folder, the one that contains the .git folder
+     * @param cancellation The token that cancels the walk, not null
+     * @throws IllegalArgumentException     If the given project or token is null
+     * @throws IOException                  If the .git folder could not be read
+     * @throws CleaningInterruptedException If the walk was cancelled
+     */
+    public static long measureGitFolder(File project, CancellationToken cancellation) throws IOException {
+        return measureGitFolderUsage(project, cancellation).apparentBytes();
+    }
+
+    /**
+     * Returns both the apparent and the allocated size of the given git project's .git folder,
+     * read with a single sequential walk that stops as soon as the given token is cancelled.
+     * A file hard linked more than once inside the folder is only counted once.
+     * @param project      The git project folder, the one that contains the .git folder
+     * @param cancellation The token that cancels the walk, not null
+     * @throws IllegalArgumentException     If the given project or token is null
+     * @throws IOException                  If the .git folder could not be read
+     * @throws CleaningInterruptedException If the walk was cancelled
+     */
+    public static DiskUsage measureGitFolderUsage(File project, CancellationToken cancellation)
+            throws IOException {
+        if (project == null) {
+            throw new IllegalArgumentException("The given project can not be null!");
+        }
+        if (cancellation == null) {
+            throw new IllegalArgumentException("The given cancellation token can not be null!");
+        }
+
+        final Path gitFolder = project.toPath().resolve(GIT_FOLDER_NAME);
+        final long blockSize = getBlockSize(gitFolder);
+        final Set<Object> seenFileKeys = new HashSet<>();
+        final long[] usage = new long[2];
+        Files.walkFileTree(gitFolder, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                final Object fileKey = attributes.fileKey();
+                if (attributes.isRegularFile() && (fileKey == null || seenFileKeys.add(fileKey))) {
+                    usage[0] += attributes.size();
+                    usage[1] += DiskUsage.allocated(attributes.size(), blockSize);
+                }
+                return cancellation.isCancelled() ? FileVisitResult.TERMINATE : FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                // Files removed by a concurrent gc are simply not counted
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        cancellation.throwIfCancelled();
+        return new DiskUsage(usage[0], usage[1]);
+    }
+
+    /**
+     * Returns the block size of the file store the given path is on,
+     * {@link #DEFAULT_BLOCK_SIZE} if it can not be read.
+     * @param path The path to look up
+     */
+    private static long getBlockSize(Path path) {
+        try {
+            final FileStore store = Files.getFileStore(path);
+            final long blockSize = store.getBlockSize();
+            return blockSize > 0 ? blockSize : DEFAULT_BLOCK_SIZE;
+        }
+        catch (IOException | UnsupportedOperationException e) {
+            return DEFAULT_BLOCK_SIZE;
+        }
+    }
+
+    /**
+     * Sets the number of directories that are allowed to be read at the same time on each file store,
+     * every file store gets this many worker threads.
+     * @param parallelism The parallelism level, must be positive
+     * @throws IllegalArgumentException If the given parallelism is less than 1
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("The parallelism must be at least 1!");
+        }
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Sets the persistent index used to skip directories that have not changed since the previous scan.
+     * The index is updated by every scan, saving it is up to the caller.
+     * @param index The index to use, null to read every directory
+     */
+    public void setIndex(ScanIndex index) {
+        this.index = index;
+    }
+
+    /**
+     * Sets the BiConsumer that is notified each time a new git project is found, so results can be shown
+     * and projects cleaned while the scan is still running. A project is reported with the size of its .git folder
+     * once the whole .git folder has been read, the scan does not touch it after that.
+     * The BiConsumer is called from the scanning threads and must be thread-safe.
+     * @param onGitFolderFound The BiConsumer to notify, null for none
+     */
+    public void setOnGitFolderFound(BiConsumer<File, DiskUsage> onGitFolderFound) {
+        this.onGitFolderFound = onGitFolderFound;
+    }
+
+    /**
+     * Sets the metrics the scans report to, so several searches and cleaning runs can share them.
+     * @param metrics The metrics to report to, not null
+     * @throws IllegalArgumentException If the given metrics are null
+     */
+    public void setMetrics(CleanerMetrics metrics) {
+        if (metrics == null) {
+            throw new IllegalArgumentException("The given metrics can not be null!");
+        }
+        this.metrics = metrics;
+    }
+
+    /**
+     * Returns the metrics the scans report to.
+     */
+    public CleanerMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    /**
+     * Sets the token that cancels the scans. A cancelled scan stops reading directories
+     * and {@link #scan(File)} throws instead of returning an incomplete result.
+     * @param cancellation The token to use, not null
+     * @throws IllegalArgumentException If the given token is null
+     */
+    public void setCancellationToken(CancellationToken cancellation) {
+        if (cancellation == null) {
+            throw new IllegalArgumentException("The given cancellation token can not be null!");
+        }
+        this.cancellation = cancellation;
+    }
+
+    /**
+     * The state shared by all tasks that scan a single file store, safe for concurrent use.
+     */
+    private static class ScanState {
+
+        /**
+         * The options of the scan.
+         */
+        private final ScanOptions options;
+
+        /**
+         * The persistent index, null if none is used.
+         */
+        private final ScanIndex index;
+
+        /**
+         * The BiConsumer to notify when a git project's .git folder has been read, null if none.
+         */
+        private final BiConsumer<File, DiskUsage> onGitFolderFound;
+
+        /**
+         * The combined size of all regular files visited so far.
+         */
+        private final LongAdder totalSize = new LongAdder();
+
+        /**
+         * The combined allocated size of all regular files visited so far.
+         */
+        private final LongAdder totalAllocated = new LongAdder();
+
+        /**
+         * The combined size of the files in .git folders that are also counted in another .git folder,
+         * hard linked between local clones. They are only part of the totals once.
+         */
+        private final LongAdder sharedSize = new LongAdder();
+
+        /**
+         * The combined allocated size of the files in .git folders that are also counted in another .git folder.
+         */
+        private final LongAdder sharedAllocated = new LongAdder();
+
+        /**
+         * The file keys of the files in all .git folders on the file store counted so far,
+         * a file hard linked into several .git folders is only part of the totals once.
+         * Files outside .git folders are not tracked, their hard links are rare and tracking every file is costly.
+         */
+        private final Set<Object> seenGitFileKeys = ConcurrentHashMap.newKeySet();
+
+        /**
+         * The size of each .git folder, keyed by the git project folder.
+         */
+        private final Map<File, UsageCounter> gitFolderSizes = new ConcurrentHashMap<>();
+
+        /**
+         * The block size of the file store the scanned directories are on.
+         */
+        private final long blockSize;
+
+        /**
+         * The identifier of the file system the scanned directories are on, null if it could not be read.
+         */
+        private final Object fileSystem;
+
+        /**
+         * The file keys of the directories visited so far, only tracked while links are followed.
+         * A directory reached again through a link is not scanned twice, which also breaks link loops.
+         */
+        private final Set<Object> visitedDirectories;
+
+        /**
+         * The metrics the scan reports to.
+         */
+        private final CleanerMetrics metrics;
+
+        /**
+         * The token that cancels the scan.
+         */
+        private final CancellationToken cancellation;
+
+        /**
+         * The directories waiting to be read, taken from the front so the scan goes depth first
+         * and the worklist stays about as long as the tree is deep.
+         */
+        private final BlockingDeque<DirectoryTask> worklist = new LinkedBlockingDeque<>();
+
+        /**
+         * The number of directories pushed to the worklist that have not been finished yet.
+         */
+        private final AtomicLong pending = new AtomicLong();
+
+        /**
+         * The number of worker threads taking directories from the worklist.
+         */
+        private final int workers;
+
+        /**
+         * Tells a worker that every directory is done, one is pushed for each worker.
+         */
+        private final DirectoryTask end;
+
+        /**
+         * True once a worker was interrupted or a task failed, every task returns early after that.
+         */
+        private volatile boolean stopped;
+
+        /**
+         * Constructor for ScanState objects.
+         * @param options            The options of the scan
+         * @param index              The persistent index, null if none is used
+         * @param onGitFolderFound   The BiConsumer to notify when a .git folder has been read, null if none
+         * @param metrics            The metrics the scan reports to
+         * @param cancellation       The token that cancels the scan
+         * @param blockSize          The block size of the file store the scanned directories are on
+         * @param fileSystem         The identifier of the file system the scanned directories are on, null if none
+         * @param visitedDirectories The file keys of the visited directories, shared by the file stores
+         * @param workers            The number of worker threads taking directories from the worklist
+         */
+        private ScanState(ScanOptions options, ScanIndex index, BiConsumer<File, DiskUsage> onGitFolderFound,
+                          CleanerMetrics metrics, CancellationToken cancellation, long blockSize, Object fileSystem,
+                          Set<Object> visitedDirectories, int workers) {
+            this.options = options;
+            this.index = index;
+            this.onGitFolderFound = onGitFolderFound;
+            this.metrics = metrics;
+            this.cancellation = cancellation;
+            this.blockSize = blockSize;
+            this.fileSystem = fileSystem;
+            this.visitedDirectories = visitedDirectories;
+            this.workers = workers;
+            this.end = new DirectoryTask(null, null, this, UNKNOWN_TIME);
+            this.stopped = false;
+        }
+
+        /**
+         * Returns true if the scan was cancelled or stopped, no more directories should be read.
+         */
+        private boolean isStopped() {
+            return this.stopped || this.cancellation.isCancelled();
+        }
+
+        /**
+         * Pushes the given tasks to the front of the worklist.
+         * @param tasks The tasks to push
+         */
+        private void push(List<DirectoryTask> tasks) {
+            this.pending.addAndGet(tasks.size());
+            for (DirectoryTask task : tasks) {
+                this.worklist.addFirst(task);
+            }
+        }
+
+        /**
+         * Takes directories from the worklist and reads them until every directory is done.
+         * A finished directory only leaves its subdirectories behind in the worklist, nothing waits for them,
+         * so the number of threads stays the same however large the tree is.
+         */
+        private void work() {
+            while (true) {
+                final DirectoryTask task;
+                try {
+                    task = this.worklist.takeFirst();
+                }
+                catch (InterruptedException e) {
+                    // The scan is closing after an interrupt, the remaining directories are not needed
+                    this.stop();
+                    return;
+                }
+                if (task == this.end) {
+                    return;
+                }
+
+                try {
+                    this.push(task.process());
+                }
+                catch (RuntimeException | Error e) {
+                    // The other workers return early, the failure is rethrown by the scan
+                    this.stop();
+                    throw e;
+                }
+                finally {
+                    task.finish();
+                    this.finish();
+                }
+            }
+        }
+
+        /**
+         * Marks a directory as done, the workers are told to end once the last one is.
+         */
+        private void finish() {
+            if (this.pending.decrementAndGet() == 0) {
+                for (int i = 0; i < this.workers; i++) {
+                    this.worklist.addLast(this.end);
+                }
+            }
+        }
+
+        /**
+         * Stops the scan, every task returns early after this.
+         */
+        private void stop() {
+            this.stopped = true;
+        }
+
+        /**
+         * Registers the given git project and returns the size counter of its .git folder.
+         * @param project The git project folder
+         */
+        private UsageCounter register(File project) {
+            final UsageCounter existing = this.gitFolderSizes.get(project);
+            if (existing != null) {
+                return existing;
+            }
+
+            final UsageCounter created = new UsageCounter(project);
+            final UsageCounter previous = this.gitFolderSizes.putIfAbsent(project, created);
+            if (previous != null) {
+                return previous;
+            }
+
+            this.metrics.gitFolderFound();
+            return created;
+        }
+
+        /**
+         * Reports the given .git folder, every directory in it has been read.
+         * A stopped scan reports nothing, the size would be incomplete.
+         * @param gitFolderSize The size counter of the .git folder
+         */
+        private void gitFolderDone(UsageCounter gitFolderSize) {
+            // The folder's own sizes are complete, its file keys are not needed anymore
+            gitFolderSize.seenFileKeys.clear();
+            if (this.onGitFolderFound != null && !this.isStopped()) {
+                this.onGitFolderFound.accept(gitFolderSize.project, gitFolderSize.toDiskUsage());
+            }
+        }
+    }
+
+    /**
+     * Counts the apparent and the allocated size of a single .git folder, safe for concurrent use.
+     */
+    private static class UsageCounter {
+
+        /**
+         * The git project folder the .git folder belongs to.
+         */
+        private final File project;
+
+        /**
+         * The number of directories of the .git folder that have been queued but not finished yet.
+         */
+        private final AtomicLong pendingDirectories = new AtomicLong();
+
+        /**
+         * The file keys of the files already counted in this .git folder, so a hard link is only counted once.
+         * The scope is a single .git folder, like {@link #measureGitFolderUsage(File, CancellationToken)},
+         * so the size of a local clone does not depend on which clone's files were read first and the size
+         * after cleaning is measured the same way. Links between folders are tracked by the scan state.
+         */
+        private final Set<Object> seenFileKeys = ConcurrentHashMap.newKeySet();
+
+        /**
+         * The apparent size counted so far.
+         */
+        private final LongAdder apparent = new LongAdder();
+
+        /**
+         * The allocated size counted so far.
+         */
+        private final LongAdder allocated = new LongAdder();
+
+        /**
+         * Constructor for UsageCounter objects.
+         * @param project The git project folder the .git folder belongs to
+         */
+        private UsageCounter(File project) {
+            this.project = project;
+        }
+
+        /**
+         * Adds the given sizes.
+         * @param apparentBytes  The apparent size to add
+         * @param allocatedBytes The allocated size to add
+         */
+        private void add(long apparentBytes, long allocatedBytes) {
+            this.apparent.add(apparentBytes);
+            this.allocated.add(allocatedBytes);
+        }
+
+        /**
+         * Returns the sizes counted so far.
+         */
+        private DiskUsage toDiskUsage() {
+            return new DiskUsage(this.apparent.sum(), this.allocated.sum());
+        }
+    }
+
+    /**
+     * A task that reads a single directory and returns one subtask for each of its subdirectories,
+     * the subtasks go to the worklist of the scan. Nothing is recursive, so deep trees can not overflow the stack.
+     */
+    private static class DirectoryTask {
+
+        /**
+         * The directory this task reads.
+         */
+        private final Path directory;
+
+        /**
+         * The size counter of the .git folder this directory belongs to, null if it is outside any .git folder.
+         */
+        private final UsageCounter gitFolderSize;
+
+        /**
+         * The shared scan state.
+         */
+        private final ScanState state;
+
+        /**
+         * The modification time of the directory in milliseconds, {@link #UNKNOWN_TIME} if not read yet.
+         */
+        private final long modifiedTime;
+
+        /**
+         * Constructor for DirectoryTask objects.
+         * @param directory     The directory to read
+         * @param gitFolderSize The size counter of the enclosing .git folder, null if none
+         * @param state         The shared scan state
+         * @param modifiedTime  The modification time of the directory, {@link #UNKNOWN_TIME} if not read yet
+         */
+        private DirectoryTask(Path directory, UsageCounter gitFolderSize, ScanState state, long modifiedTime) {
+            this.directory = directory;
+            this.gitFolderSize = gitFolderSize;
+            this.state = state;
+            this.modifiedTime = modifiedTime;
+            if (gitFolderSize != null) {
+                gitFolderSize.pendingDirectories.incrementAndGet();
+            }
+        }
+
+        /**
+         * Marks the directory as done, after its subtasks were created. The .git folder it belongs to is reported
+         * once its last directory is done.
+         */
+        private void finish() {
+            if (this.gitFolderSize != null && this.gitFolderSize.pendingDirectories.decrementAndGet() == 0) {
+                this.state.gitFolderDone(this.gitFolderSize);
+            }
+        }
+
+        /**
+         * Reads the directory if it is in scope.
+         * @return The subtasks of the subdirectories to descend into
+         */
+        private List<DirectoryTask> process() {
+            if (this.state.isStopped() || !this.isInScope()) {
+                // Neither this directory nor anything below it is read, a stopped worklist drains quickly
+                return Collections.emptyList();
+            }
+            return this.read();
+        }
+
+        /**
+         * Returns true if the directory should be scanned: it is on the scanned file system when the scan stays
+         * on one, and it has not been visited yet through another link when links are followed.
+         * Both checks are opt-in, each costs an attribute read.
+         */
+        private boolean isInScope() {
+            final ScanOptions options = this.state.options;
+            if (options.isSameFileSystem() && this.state.fileSystem != null
+                    && !this.state.fileSystem.equals(getFileSystem(this.directory))) {
+                // A mount point, or a link to another file system
+                return false;
+            }
+            if (!options.isFollowLinks()) {
+                return true;
+            }
+
+            try {
+                final BasicFileAttributes attributes = Files.readAttributes(this.directory, BasicFileAttributes.class);
+                final Object fileKey = attributes.fileKey() != null
+                        ? attributes.fileKey() : this.directory.toRealPath();
+                // The first path to reach a directory scans it, a loop back to an ancestor always ends here
+                return this.state.visitedDirectories.add(fileKey);
+            }
+            catch (IOException e) {
+                // The directory is gone or unreadable, it can not be cleaned anyway
+                return false;
+            }
+        }
+
+        /**
+         * Reads the directory, or reuses its index entry if it has not changed.
+         * @return The subtasks of the subdirectories to descend into
+         */
+        private List<DirectoryTask> read() {
+            final ScanIndex index = this.state.index;
+            if (index == null) {
+                return this.readDirectory(UNKNOWN_TIME, 0);
+            }
+
+            long modified = this.modifiedTime;
+            int statCalls = 0;
+            if (modified == UNKNOWN_TIME) {
+                try {
+                    statCalls++;
+                    modified = Files.getLastModifiedTime(this.directory, this.state.options.getLinkOptions())
+                            .toMillis();
+                }
+                catch (IOException e) {
+                    // The directory is gone or unreadable, it can not be cleaned anyway
+                    return Collections.emptyList();
+                }
+            }
+
+            final ScanIndex.Entry entry = index.lookup(this.directory, modified);
+            if (entry == null) {
+                return this.readDirectory(modified, statCalls);
+            }
+
+            // The directory is unchanged, reuse what the previous scan found and only check the subdirectories
+            this.state.metrics.directoryFromIndex(statCalls);
+            index.record(this.directory, entry);
+            this.countBytes(entry.getFileBytes(), entry.getAllocatedBytes(), entry.getSharedBytes(),
+                    entry.getSharedAllocatedBytes());
+
+            final List<DirectoryTask> subtasks = new ArrayList<>();
+            for (String name : entry.getSubdirectories()) {
+                final Path subdirectory = this.directory.resolve(name);
+                final UsageCounter subdirectoryGitSize = this.getGitFolderSize(subdirectory);
+                subtasks.add(new DirectoryTask(subdirectory, subdirectoryGitSize, this.state, UNKNOWN_TIME));
+            }
+            return subtasks;
+        }
+
+        /**
+         * Lists the directory, counts its files and creates a subtask for each subdirectory.
+         * @param modified  The modification time of the directory to record in the index
+         * @param statCalls The number of attribute reads already made for the directory itself
+         * @return The subtasks of the subdirectories to descend into
+         */
+        private List<DirectoryTask> readDirectory(long modified, int statCalls) {
+            final List<Path> entries = new ArrayList<>();
+            Path gitEntry = null;
+
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(this.directory)) {
+                for (Path entry : stream) {
+                    if (this.state.isStopped()) {
+                        return Collections.emptyList();
+                    }
+                    if (entry.getFileName().toString().equals(GIT_FOLDER_NAME)) {
+                        // Looked at first, whether the rest of the directory is read depends on it
+                        gitEntry = entry;
+                        entries.add(0, entry);
+                    }
+                    else {
+                        entries.add(entry);
+                    }
+                }
+            }
+            catch (IOException e) {
+                // Unreadable directories are skipped, they can not be cleaned anyway
+                return Collections.emptyList();
+            }
+
+            // A project is a leaf, only its .git folder is read and the working tree is left alone. A .git file,
+            // as in a worktree or a submodule checkout, does not make a project, that directory is read in full
+            final boolean leafCandidate = gitEntry != null && this.gitFolderSize == null
+                    && !this.state.options.isNestedRepositories();
+            boolean leaf = false;
+            int entriesRead = 0;
+
+            final List<DirectoryTask> subtasks = new ArrayList<>();
+            final List<String> subdirectoryNames = new ArrayList<>();
+            long fileBytes = 0;
+            long allocatedBytes = 0;
+            long sharedBytes = 0;
+            long sharedAllocatedBytes = 0;
+            int files = 0;
+
+            for (Path entry : entries) {
+                if (this.state.isStopped()) {
+                    return Collections.emptyList();
+                }
+                if (leaf) {
+                    break;
+                }
+                entriesRead++;
+                BasicFileAttributes attributes;
+                try {
+                    attributes = Files.readAttributes(entry, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                    if (attributes.isSymbolicLink() && this.gitFolderSize == null
+                            && this.state.options.isFollowLinks()) {
+                        // The target is counted instead, a link inside a .git folder is not part of its size
+                        statCalls++;
+                        attributes = Files.readAttributes(entry, BasicFileAttributes.class);
+                    }
+                }
+                catch (IOException e) {
+                    // Unreadable entries and dangling links are skipped, they can not be cleaned anyway
+                    continue;
+                }
+
+                if (attributes.isRegularFile()) {
+                    files++;
+                    if (this.isCounted(attributes)) {
+                        final long allocated = DiskUsage.allocated(attributes.size(), this.state.blockSize);
+                        fileBytes += attributes.size();
+                        allocatedBytes += allocated;
+                        if (this.isShared(attributes)) {
+                            sharedBytes += attributes.size();
+                            sharedAllocatedBytes += allocated;
+                        }
+                    }
+                }
+                else if (attributes.isDirectory() && (this.gitFolderSize != null || !this.isSkipped(entry))) {
+                    final long subdirectoryModified = attributes.lastModifiedTime().toMillis();
+                    final UsageCounter subdirectoryGitSize = this.getGitFolderSize(entry);
+                    subtasks.add(new DirectoryTask(entry, subdirectoryGitSize, this.state, subdirectoryModified));
+                    subdirectoryNames.add(entry.getFileName().toString());
+                    leaf = leafCandidate && entry.equals(gitEntry);
+                }
+            }
+
+            this.countBytes(fileBytes, allocatedBytes, sharedBytes, sharedAllocatedBytes);
+            this.state.metrics.directoryListed(files, statCalls + entriesRead);
+            if (this.state.index != null) {
+                this.state.index.record(this.directory, new ScanIndex.Entry(modified, fileBytes, allocatedBytes,
+                        sharedBytes, sharedAllocatedBytes, subdirectoryNames));
+            }
+
+            return subtasks;
+        }
+
+        /**
+         * Adds the given file sizes to the enclosing .git folder, and to the totals unless another .git folder
+         * already counted them.
+         * @param bytes                The apparent size to add
+         * @param allocatedBytes       The allocated size to add
+         * @param sharedBytes          The part of the apparent size another .git folder already counted
+         * @param sharedAllocatedBytes The part of the allocated size another .git folder already counted
+         */
+        private void countBytes(long bytes, long allocatedBytes, long sharedBytes, long sharedAllocatedBytes) {
+            this.state.totalSize.add(bytes - sharedBytes);
+            this.state.totalAllocated.add(allocatedBytes - sharedAllocatedBytes);
+            this.state.sharedSize.add(sharedBytes);
+            this.state.sharedAllocated.add(sharedAllocatedBytes);
+            if (this.gitFolderSize != null) {
+                this.gitFolderSize.add(bytes, allocatedBytes);
+            }
+        }
+
+        /**
+         * Returns true if the size of the given file should be counted,
+         * false if it is inside a .git folder and another hard link to it in that folder was already counted.
+         */
+        private boolean isCounted(BasicFileAttributes attributes) {
+            final Object fileKey = attributes.fileKey();
+            return this.gitFolderSize == null || fileKey == null || this.gitFolderSize.seenFileKeys.add(fileKey);
+        }
+
+        /**
+         * Returns true if the given file, counted in its .git folder, was already counted in another .git folder
+         * on the file store, a hard link between local clones.
+         * Only called once per file and .git folder, after {@link #isCounted(BasicFileAttributes)}.
+         */
+        private boolean isShared(BasicFileAttributes attributes) {
+            final Object fileKey = attributes.fileKey();
+            return this.gitFolderSize != null && fileKey != null && !this.state.seenGitFileKeys.add(fileKey);
+        }
+
+        /**
+         * Returns true if the given subdirectory matches a skip pattern, .git folders are never skipped.
+         */
+        private boolean isSkipped(Path subdirectory) {
+            return !subdirectory.getFileName().toString().equals(GIT_FOLDER_NAME)
+                    && this.state.options.isSkipped(subdirectory);
+        }
+
+        /**
+         * Returns the .git folder size counter for the given subdirectory,
+         * registers a new git project if the subdirectory is a .git folder.
+         */
+        private UsageCounter getGitFolderSize(Path subdirectory) {
+            if (this.gitFolderSize == null && subdirectory.getFileName().toString().equals(GIT_FOLDER_NAME)) {
+                return this.state.register(this.directory.toFile());
+            }
+            return this.gitFolderSize;
+        }
+    }
+}
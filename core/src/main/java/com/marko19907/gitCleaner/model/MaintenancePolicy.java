@@ -0,0 +1,26 @@
+package com.marko19907.gitCleaner.model;
+
+/**
+ * Picks the maintenance strategy for a single git project from its measured state.
+ */
+public interface MaintenancePolicy {
+
+    /**
+     * Returns the strategy to use for a git project.
+     * @param stats         The object database statistics of the project
+     * @param gitFolderSize The size of the project's .git folder in bytes
+     */
+    MaintenanceStrategy select(RepositoryStats stats, long gitFolderSize);
+
+    /**
+     * Returns a policy that always picks the given strategy.
+     * @param strategy The strategy to pick, not null
+     * @throws IllegalArgumentException If the given strategy is null
+     */
+    static MaintenancePolicy fixed(MaintenanceStrategy strategy) {
+        if (strategy == null) {
+            throw new IllegalArgumentException("The given strategy can not be null!");
+        }
+        return (stats, gitFolderSize) -> strategy;
+    }
+}
@@ -0,0 +1,19 @@
+package com.marko19907.gitCleaner.model;
+
+import java.util.List;
+
+/**
+ * A way of maintaining a git project, described by the git command that carries it out.
+ */
+public interface MaintenanceStrategy {
+
+    /**
+     * Returns the name of the strategy, as shown in reports.
+     */
+    String getName();
+
+    /**
+     * Returns the git arguments that carry out the strategy, without the git executable itself.
+     */
+    List<String> getArguments();
+}
@@ -0,0 +1,77 @@
+package com.marko19907.gitCleaner.model;
+
+import java.util.List;
+
+/**
+ * The built-in maintenance strategies, ordered from the cheapest to the most expensive.
+ */
+public enum MaintenanceTier implements MaintenanceStrategy {
+
+    /**
+     * Packs the loose objects into one new pack and deletes them, the existing packs are left as they are.
+     * The cost is proportional to the number of loose objects. Not gc --auto: git only acts once its own
+     * thresholds (6700 loose objects, 50 packs) are exceeded and estimates the loose objects from a single
+     * sample directory, so for the small projects this tier is meant for it would hardly ever do anything.
+     */
+    LIGHT("light", List.of("repack", "-d", "-l")),
+
+    /**
+     * Packs only the new objects into an extra pack and consolidates small packs through the multi-pack-index,
+     * keeps the cost proportional to what changed rather than to the size of the project.
+     */
+    INCREMENTAL("incremental", List.of("maintenance", "run", "--task=loose-objects", "--task=incremental-repack")),
+
+    /**
+     * A regular gc, repacks everything into a single pack with the default delta window.
+     */
+    STANDARD("standard", List.of("gc", "--prune")),
+
+    /**
+     * A full aggressive repack, recomputes every delta with a large window. The most effective and the most expensive.
+     */
+    AGGRESSIVE("aggressive", List.of("gc", "--aggressive", "--prune"));
+
+    /**
+     * The name of the tier.
+     */
+    private final String name;
+
+    /**
+     * The git arguments of the tier.
+     */
+    private final List<String> arguments;
+
+    /**
+     * Constructor for MaintenanceTier objects.
+     * @param name      The name of the tier
+     * @param arguments The git arguments of the tier
+     */
+    MaintenanceTier(String name, List<String> arguments) {
+        this.name = name;
+        this.arguments = arguments;
+    }
+
+    @Override
+    public String getName() {
+        return this.name;
+    }
+
+    @Override
+    public List<String> getArguments() {
+        return this.arguments;
+    }
+
+    /**
+     * Returns the tier with the given name, ignoring case.
+     * @param name The name of the tier
+     * @throws IllegalArgumentException If there is no tier with the given name
+     */
+    public static MaintenanceTier fromName(String name) {
+        for (MaintenanceTier tier : values()) {
+            if (tier.name.equalsIgnoreCase(name)) {
+                return tier;
+            }
+        }
+        throw new IllegalArgumentException("Unknown maintenance tier: " + name);
+    }
+}
@@ -0,0 +1,92 @@
+package com.marko19907.gitCleaner.model;
+
+import java.time.Duration;
+
+/**
+ * The outcome of a supervised process: how it ended, how long it took and the tail of what it printed.
+ */
+public class ProcessOutcome {
+
+    /**
+     * The exit code, -1 if the process was killed because it timed out.
+     */
+    private final int exitCode;
+
+    /**
+     * The time from start to exit.
+     */
+    private final Duration duration;
+
+    /**
+     * True if the process was killed because it ran longer than the timeout.
+     */
+    private final boolean timedOut;
+
+    /**
+     * The tail of the standard output.
+     */
+    private final String output;
+
+    /**
+     * The tail of the standard error.
+     */
+    private final String error;
+
+    /**
+     * Constructor for ProcessOutcome objects.
+     * @param exitCode The exit code, -1 if the process timed out
+     * @param duration The time from start to exit
+     * @param timedOut True if the process was killed because it timed out
+     * @param output   The tail of the standard output
+     * @param error    The tail of the standard error
+     */
+    public ProcessOutcome(int exitCode, Duration duration, boolean timedOut, String output, String error) {
+        this.exitCode = exitCode;
+        this.duration = duration;
+        this.timedOut = timedOut;
+        this.output = output;
+        this.error = error;
+    }
+
+    /**
+     * Returns true if the process exited on its own with exit code 0.
+     */
+    public boolean isSuccess() {
+        return !this.timedOut && this.exitCode == 0;
+    }
+
+    /**
+     * Returns the exit code, -1 if the process was killed because it timed out.
+     */
+    public int getExitCode() {
+        return this.exitCode;
+    }
+
+    /**
+     * Returns the time from start to exit.
+     */
+    public Duration getDuration() {
+        return this.duration;
+    }
+
+    /**
+     * Returns true if the process was killed because it ran longer than the timeout.
+     */
+    public boolean isTimedOut() {
+        return this.timedOut;
+    }
+
+    /**
+     * Returns the tail of the standard output.
+     */
+    public String getOutput() {
+        return this.output;
+    }
+
+    /**
+     * Returns the tail of the standard error.
+     */
+    public String getError() {
+        return this.error;
+    }
+}
@@ -0,0 +1,182 @@
+package com.marko19907.gitCleaner.model;
+
+import com.marko19907.gitCleaner.utilities.CleaningInterruptedException;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Starts a process and watches over it until it exits: both output streams are drained in the background
+ * so the process can never block on a full pipe, the process is killed together with its children
+ * once it runs longer than the timeout, the waiting thread is interrupted or the task is cancelled.
+ */
+public class ProcessSupervisor {
+
+    /**
+     * The default number of bytes kept from the end of each output stream.
+     */
+    public static final int DEFAULT_OUTPUT_LIMIT = 16 * 1024;
+
+    /**
+     * The threads that drain the output streams, one cheap virtual thread per stream.
+     * Virtual threads are daemons, so they never keep the program alive.
+     */
+    private static final ExecutorService DRAINERS = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("process-output-drainer-", 0).factory());
+
+    /**
+     * The maximum time a process is allowed to run.
+     */
+    private final Duration timeout;
+
+    /**
+     * The number of bytes kept from the end of each output stream.
+     */
+    private final int outputLimit;
+
+    /**
+     * Constructor for ProcessSupervisor objects.
+     * @param timeout     The maximum time a process is allowed to run, not null and positive
+     * @param outputLimit The number of bytes kept from the end of each output stream, not negative
+     * @throws IllegalArgumentException If the timeout is null, zero or negative or if the output limit is negative
+     */
+    public ProcessSupervisor(Duration timeout, int outputLimit) {
+        // Guard condition, a zero timeout would kill every process right away
+        if (timeout == null || timeout.isNegative() || timeout.isZero()) {
+            throw new IllegalArgumentException("The timeout can not be null, zero or negative!");
+        }
+        if (outputLimit < 0) {
+            throw new IllegalArgumentException("The output limit can not be negative!");
+        }
+        this.timeout = timeout;
+        this.outputLimit = outputLimit;
+    }
+
+    /**
+     * Runs the given command in the given directory and waits for it to exit or to time out.
+     * @param command   The command and its arguments, not null or empty
+     * @param directory The working directory of the process
+     * @return The outcome of the process
+     * @throws IOException          If the process could not be started
+     * @throws InterruptedException If the waiting thread was interrupted, the process is killed first
+     */
+    public ProcessOutcome run(List<String> command, File directory) throws IOException, InterruptedException {
+        return this.run(command, directory, new CancellationToken());
+    }
+
+    /**
+     * Runs the given command in the given directory and waits for it to exit, to time out or to be cancelled.
+     * Cancelling the token kills the process and its children right away, without waiting for the timeout.
+     * @param command      The command and its arguments, not null or empty
+     * @param directory    The working directory of the process
+     * @param cancellation The token that cancels the process, not null
+     * @return The outcome of the process
+     * @throws IOException                  If the process could not be started
+     * @throws InterruptedException         If the waiting thread was interrupted, the process is killed first
+     * @throws CleaningInterruptedException If the token was cancelled, the process is killed first
+     */
+    public ProcessOutcome run(List<String> command, File directory, CancellationToken cancellation)
+            throws IOException, InterruptedException {
+        if (command == null || command.isEmpty()) {
+            throw new IllegalArgumentException("The given command can not be null or empty!");
+        }
+        if (cancellation == null) {
+            throw new IllegalArgumentException("The given cancellation token can not be null!");
+        }
+        cancellation.throwIfCancelled();
+
+        final ProcessBuilder processBuilder = new ProcessBuilder(command);
+        processBuilder.directory(directory);
+
+        final long start = System.nanoTime();
+        final Process process = processBuilder.start();
+        // Nothing is ever written to the process, a closed input makes any prompt fail instead of hang
+        process.getOutputStream().close();
+
+        final CompletableFuture<String> output = this.drain(process.getInputStream());
+        final CompletableFuture<String> error = this.drain(process.getErrorStream());
+
+        final Runnable kill = () -> destroyTree(process.toHandle());
+        cancellation.addListener(kill);
+
+        boolean timedOut = false;
+        try {
+            process.onExit().get(this.timeout.toMillis(), TimeUnit.MILLISECONDS);
+        }
+        catch (TimeoutException e) {
+            timedOut = true;
+            destroyTree(process.toHandle());
+            process.waitFor();
+        }
+        catch (InterruptedException e) {
+            destroyTree(process.toHandle());
+            throw e;
+        }
+        catch (ExecutionException e) {
+            // onExit() never completes exceptionally, the process has ended either way
+        }
+        finally {
+            cancellation.removeListener(kill);
+        }
+        // A cancelled process was killed by the listener, its exit code means nothing
+        cancellation.throwIfCancelled();
+
+        final Duration duration = Duration.ofNanos(System.nanoTime() - start);
+        final int exitCode = timedOut ? -1 : process.exitValue();
+
+        return new ProcessOutcome(exitCode, duration, timedOut, output.join(), error.join());
+    }
+
+    /**
+     * Forcibly kills the given process and all of its descendants, children first.
+     * @param process The process to kill
+     */
+    public static void destroyTree(ProcessHandle process) {
+        process.descendants().forEach(ProcessHandle::destroyForcibly);
+        process.destroyForcibly();
+    }
+
+    /**
+     * Reads the given stream to its end in the background, keeping only the last bytes.
+     * @param stream The stream to drain
+     * @return A future that completes with the kept tail once the stream is closed
+     */
+    private CompletableFuture<String> drain(InputStream stream) {
+        return CompletableFuture.supplyAsync(() -> {
+            final byte[] tail = new byte[this.outputLimit];
+            final byte[] buffer = new byte[8192];
+            long total = 0;
+
+            try (stream) {
+                int read;
+                while ((read = stream.read(buffer)) != -1) {
+                    // The tail is a ring buffer, older output is overwritten
+                    for (int i = 0; i < read && tail.length > 0; i++) {
+                        tail[(int) ((total + i) % tail.length)] = buffer[i];
+                    }
+                    total += read;
+                }
+            }
+            catch (IOException e) {
+                // The stream is closed when the process is killed, whatever was read so far is kept
+            }
+
+            final int kept = (int) Math.min(total, tail.length);
+            final byte[] ordered = new byte[kept];
+            for (int i = 0; i < kept; i++) {
+                ordered[i] = tail[(int) ((total - kept + i) % tail.length)];
+            }
+            return new String(ordered, Charset.defaultCharset());
+        }, DRAINERS);
+    }
+}
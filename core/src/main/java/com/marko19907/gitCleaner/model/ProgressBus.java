@@ -0,0 +1,100 @@
+package com.marko19907.gitCleaner.model;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Delivers {@link ProgressEvent}s from the cleaning threads to whoever is interested, without knowing about them.
+ * Events are published from many threads at once and delivered on the publishing thread, so listeners
+ * must be thread-safe and quick. A user interface should hand the events over to its own thread,
+ * coalescing them rather than scheduling one update per event.
+ */
+public class ProgressBus {
+
+    /**
+     * The subscribed listeners.
+     */
+    private final List<Consumer<ProgressEvent>> listeners;
+
+    /**
+     * Default no-arg constructor, creates a bus without listeners.
+     */
+    public ProgressBus() {
+        this.listeners = new CopyOnWriteArrayList<>();
+    }
+
+    /**
+     * Subscribes the given listener to every event.
+     * @param listener The listener to subscribe, not null
+     * @throws IllegalArgumentException If the given listener is null
+     */
+    public void subscribe(Consumer<ProgressEvent> listener) {
+        // Guard condition
+        if (listener == null) {
+            throw new IllegalArgumentException("The given listener can not be null!");
+        }
+        this.listeners.add(listener);
+    }
+
+    /**
+     * Subscribes the given listener to the events of the given type only.
+     * @param type     The type of the events to deliver, not null
+     * @param listener The listener to subscribe, not null
+     * @param <E>      The type of the events
+     * @return The subscribed listener, to be passed to {@link #unsubscribe(Consumer)}
+     * @throws IllegalArgumentException If the given type or listener is null
+     */
+    public <E extends ProgressEvent> Consumer<ProgressEvent> subscribe(Class<E> type, Consumer<? super E> listener) {
+        // Guard condition
+        if (type == null || listener == null) {
+            throw new IllegalArgumentException("The given type and listener can not be null!");
+        }
+
+        final Consumer<ProgressEvent> filtered = event -> {
+            if (type.isInstance(event)) {
+                listener.accept(type.cast(event));
+            }
+        };
+        this.listeners.add(filtered);
+        return filtered;
+    }
+
+    /**
+     * Unsubscribes the given listener.
+     * @param listener The listener to unsubscribe
+     */
+    public void unsubscribe(Consumer<ProgressEvent> listener) {
+        this.listeners.remove(listener);
+    }
+
+    /**
+     * Returns true if at least one listener is subscribed.
+     */
+    public boolean hasListeners() {
+        return !this.listeners.isEmpty();
+    }
+
+    /**
+     * Delivers the given event to every subscribed listener on the calling thread.
+     * A failing listener does not keep the event from the others, nor does it stop the publishing thread.
+     * @param event The event to publish, not null
+     * @throws IllegalArgumentException If the given event is null
+     */
+    public void publish(ProgressEvent event) {
+        // Guard condition
+        if (event == null) {
+            throw new IllegalArgumentException("The given event can not be null!");
+        }
+
+        for (Consumer<ProgressEvent> listener : this.listeners) {
+            try {
+                listener.accept(event);
+            }
+            catch (RuntimeException e) {
+                // A broken listener must not fail the cleaning
+                e.printStackTrace();
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.marko19907.gitCleaner.model;
+
+import java.io.File;
+
+/**
+ * An event published on the {@link ProgressBus} while a folder is analyzed and cleaned.
+ * The set of events is closed, so a listener can switch over them exhaustively.
+ */
+public sealed interface ProgressEvent {
+
+    /**
+     * The phases a {@link GitCleaner} goes through.
+     */
+    enum Phase {
+        /**
+         * The input directory is searched for git projects.
+         */
+        ANALYZING,
+
+        /**
+         * The object databases of the found git projects are inspected.
+         */
+        INSPECTING,
+
+        /**
+         * The found git projects are cleaned.
+         */
+        CLEANING,
+
+        /**
+         * Every git project has been cleaned.
+         */
+        FINISHED
+    }
+
+    /**
+     * The cleaner entered a new phase.
+     * @param phase The new phase
+     */
+    record PhaseChanged(Phase phase) implements ProgressEvent {
+    }
+
+    /**
+     * A git project was found by the analysis.
+     * @param folder The git project folder
+     * @param found  The number of git projects found so far
+     */
+    record RepositoryFound(File folder, int found) implements ProgressEvent {
+    }
+
+    /**
+     * The .git folder of a git project was measured and its object database inspected after the analysis.
+     * @param folder        The git project folder
+     * @param gitFolderSize The size of the .git folder in bytes
+     * @param stats         The object database statistics, null if they could not be read
+     */
+    record RepositoryMeasured(File folder, long gitFolderSize, RepositoryStats stats) implements ProgressEvent {
+    }
+
+    /**
+     * A git process is about to be started in a git project.
+     * @param folder The git project folder
+     */
+    record RepositoryStarted(File folder) implements ProgressEvent {
+    }
+
+    /**
+     * The .git folder of a cleaned git project shrank.
+     * @param folder The git project folder
+     * @param bytes  The number of bytes reclaimed, positive
+     */
+    record BytesReclaimed(File folder, long bytes) implements ProgressEvent {
+    }
+
+    /**
+     * A git project is done, whether it was cleaned, skipped or failed.
+     * @param result    The result of the git project
+     * @param completed The number of git projects done so far
+     * @param total     The number of git projects found so far
+     */
+    record RepositoryFinished(CleaningResult result, int completed, int total) implements ProgressEvent {
+    }
+}
@@ -0,0 +1,124 @@
+package com.marko19907.gitCleaner.model;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+
+/**
+ * The object database statistics of a single git project, read directly from its .git/objects folder
+ * without starting git.
+ */
+public class RepositoryStats {
+
+    /**
+     * The number of loose objects.
+     */
+    private final int looseObjects;
+
+    /**
+     * The number of pack files.
+     */
+    private final int packs;
+
+    /**
+     * The time of the last repack, null if the project has never been packed.
+     */
+    private final Instant lastGcTime;
+
+    /**
+     * Constructor for RepositoryStats objects.
+     * @param looseObjects The number of loose objects
+     * @param packs        The number of pack files
+     * @param lastGcTime   The time of the last repack, null if never packed
+     */
+    public RepositoryStats(int looseObjects, int packs, Instant lastGcTime) {
+        this.looseObjects = looseObjects;
+        this.packs = packs;
+        this.lastGcTime = lastGcTime;
+    }
+
+    /**
+     * Reads the statistics of the given git project.
+     * Loose objects are counted by name only, one listing per fan-out folder and no stat calls.
+     * The last repack time is the modification time of objects/info/packs, which git rewrites on every repack,
+     * or of the newest pack file if that is missing.
+     * @param project The git project folder, the one that contains the .git folder
+     * @throws IllegalArgumentException If the given project is null
+     * @throws IOException              If the object database could not be read
+     */
+    public static RepositoryStats read(File project) throws IOException {
+        if (project == null) {
+            throw new IllegalArgumentException("The given project can not be null!");
+        }
+
+        final Path objects = project.toPath().resolve(".git").resolve("objects");
+        int looseObjects = 0;
+        int packs = 0;
+        Instant lastGcTime = null;
+
+        try (DirectoryStream<Path> fanOut = Files.newDirectoryStream(objects, RepositoryStats::isFanOutFolder)) {
+            for (Path folder : fanOut) {
+                try (DirectoryStream<Path> loose = Files.newDirectoryStream(folder)) {
+                    for (Path ignored : loose) {
+                        looseObjects++;
+                    }
+                }
+            }
+        }
+
+        final Path packFolder = objects.resolve("pack");
+        if (Files.isDirectory(packFolder)) {
+            try (DirectoryStream<Path> packFiles = Files.newDirectoryStream(packFolder, "*.pack")) {
+                for (Path pack : packFiles) {
+                    packs++;
+                    final Instant modified = Files.getLastModifiedTime(pack).toInstant();
+                    if (lastGcTime == null || modified.isAfter(lastGcTime)) {
+                        lastGcTime = modified;
+                    }
+                }
+            }
+        }
+
+        final Path packsInfo = objects.resolve("info").resolve("packs");
+        if (Files.isRegularFile(packsInfo)) {
+            lastGcTime = Files.getLastModifiedTime(packsInfo).toInstant();
+        }
+
+        return new RepositoryStats(looseObjects, packs, lastGcTime);
+    }
+
+    /**
+     * Returns true if the given path is one of the two hex digit folders loose objects are stored in.
+     */
+    private static boolean isFanOutFolder(Path path) {
+        final String name = path.getFileName().toString();
+        return name.length() == 2
+                && Character.digit(name.charAt(0), 16) >= 0
+                && Character.digit(name.charAt(1), 16) >= 0
+                && Files.isDirectory(path);
+    }
+
+    /**
+     * Returns the number of loose objects.
+     */
+    public int getLooseObjects() {
+        return this.looseObjects;
+    }
+
+    /**
+     * Returns the number of pack files.
+     */
+    public int getPacks() {
+        return this.packs;
+    }
+
+    /**
+     * Returns the time of the last repack, null if the project has never been packed.
+     */
+    public Instant getLastGcTime() {
+        return this.lastGcTime;
+    }
+}
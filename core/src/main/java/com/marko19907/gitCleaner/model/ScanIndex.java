@@ -0,0 +1,326 @@
+package com.marko19907.gitCleaner.model;
+
+import com.marko19907.gitCleaner.utilities.Utilities;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A persistent index of a previous scan, stored as a compact binary file in the user cache directory.
+ * For every directory it remembers the modification time, the apparent and allocated size of the files
+ * directly inside it, the part of that size another .git folder already counted
+ * and the subdirectories the scan descended into. A directory whose modification time has not changed
+ * since the previous scan is not listed again, only its subdirectories are checked.
+ * <p>
+ * Note that a directory's modification time only changes when entries are added, removed or renamed.
+ * Git writes new objects and packs as new files, so this is enough to notice cleaned or grown .git folders,
+ * but a file that is rewritten in place keeps its old size in the index until its directory changes.
+ */
+public class ScanIndex {
+
+    /**
+     * The magic number at the start of every index file.
+     */
+    private static final int MAGIC = 0x47434958;
+
+    /**
+     * The version of the index file format.
+     */
+    private static final int VERSION = 3;
+
+    /**
+     * The index file.
+     */
+    private final Path indexFile;
+
+    /**
+     * The fingerprint of the scan options the index was built with.
+     */
+    private final String optionsFingerprint;
+
+    /**
+     * The entries of the previous scan, keyed by the absolute directory path.
+     */
+    private final Map<String, Entry> previous;
+
+    /**
+     * The entries of the current scan, keyed by the absolute directory path.
+     */
+    private final Map<String, Entry> current;
+
+    /**
+     * Constructor for ScanIndex objects.
+     * @param indexFile          The index file
+     * @param optionsFingerprint The fingerprint of the scan options
+     * @param previous           The entries of the previous scan
+     */
+    private ScanIndex(Path indexFile, String optionsFingerprint, Map<String, Entry> previous) {
+        this.indexFile = indexFile;
+        this.optionsFingerprint = optionsFingerprint;
+        this.previous = previous;
+        this.current = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Loads the index of the given directory from the user cache directory.
+     * An empty index is returned if there is none yet, if it can not be read
+     * or if it was built with different scan options.
+     * @param directory The scanned directory, not null
+     * @param options   The scan options, not null
+     * @throws IllegalArgumentException If the given directory or options are null
+     */
+    public static ScanIndex load(File directory, ScanOptions options) {
+        if (directory == null) {
+            throw new IllegalArgumentException("The given directory and options can not be null!");
+        }
+        return load(List.of(directory), options);
+    }
+
+    /**
+     * Loads the index of the given set of directories from the user cache directory,
+     * the directories are scanned together and share a single index.
+     * An empty index is returned if there is none yet, if it can not be read,
+     * if it was built with different scan options or for a different set of directories.
+     * @param directories The scanned directories in scan order, not null or empty
+     * @param options     The scan options, not null
+     * @throws IllegalArgumentException If the given directories or options are null or there are no directories
+     */
+    public static ScanIndex load(List<File> directories, ScanOptions options) {
+        return load(directories, options, Utilities.getCacheDirectory());
+    }
+
+    /**
+     * Loads the index of the given set of directories from the given cache directory,
+     * see {@link #load(List, ScanOptions)}.
+     * @param directories    The scanned directories in scan order, not null or empty
+     * @param options        The scan options, not null
+     * @param cacheDirectory The directory the index file is kept in, not null
+     * @throws IllegalArgumentException If the given directories, options or cache directory are null
+     *                                  or there are no directories
+     */
+    static ScanIndex load(List<File> directories, ScanOptions options, Path cacheDirectory) {
+        if (directories == null || directories.isEmpty() || options == null) {
+            throw new IllegalArgumentException("The given directories and options can not be null!");
+        }
+        if (cacheDirectory == null) {
+            throw new IllegalArgumentException("The given cache directory can not be null!");
+        }
+
+        final String root = Utilities.joinPaths(directories);
+        final String fingerprint = "nested=" + options.isNestedRepositories()
+                + ";skip=" + String.join("\u0000", options.getSkipPatterns())
+                + ";links=" + options.isFollowLinks() + ";xdev=" + options.isSameFileSystem();
+        final Path indexFile = cacheDirectory.resolve("index-" + Integer.toHexString(root.hashCode()) + ".bin");
+
+        Map<String, Entry> entries = Collections.emptyMap();
+        if (Files.isRegularFile(indexFile)) {
+            try {
+                entries = read(indexFile, root, fingerprint);
+            }
+            catch (IOException e) {
+                // A damaged index is simply rebuilt by the next scan
+                entries = Collections.emptyMap();
+            }
+        }
+
+        return new ScanIndex(indexFile, root + "\u0000" + fingerprint, entries);
+    }
+
+    /**
+     * Returns the previous entry of the given directory if its modification time is unchanged, null otherwise.
+     * @param directory    The directory to look up
+     * @param modifiedTime The current modification time of the directory in milliseconds
+     */
+    Entry lookup(Path directory, long modifiedTime) {
+        final Entry entry = this.previous.get(directory.toString());
+        if (entry != null && entry.modifiedTime == modifiedTime) {
+            return entry;
+        }
+        return null;
+    }
+
+    /**
+     * Records the entry of the given directory for the current scan.
+     * @param directory The directory
+     * @param entry     The entry to record
+     */
+    void record(Path directory, Entry entry) {
+        this.current.put(directory.toString(), entry);
+    }
+
+    /**
+     * Writes the entries of the current scan to the index file, replacing the previous index atomically.
+     * @throws IOException If the index file could not be written
+     */
+    public void save() throws IOException {
+        Files.createDirectories(this.indexFile.getParent());
+        final Path temporary = this.indexFile.resolveSibling(this.indexFile.getFileName() + ".tmp");
+
+        try (DataOutputStream output = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeUTF(this.optionsFingerprint);
+            output.writeInt(this.current.size());
+
+            for (Map.Entry<String, Entry> mapEntry : this.current.entrySet()) {
+                final Entry entry = mapEntry.getValue();
+                output.writeUTF(mapEntry.getKey());
+                output.writeLong(entry.modifiedTime);
+                output.writeLong(entry.fileBytes);
+                output.writeLong(entry.allocatedBytes);
+                output.writeLong(entry.sharedBytes);
+                output.writeLong(entry.sharedAllocatedBytes);
+                output.writeInt(entry.subdirectories.size());
+                for (String subdirectory : entry.subdirectories) {
+                    output.writeUTF(subdirectory);
+                }
+            }
+        }
+
+        Files.move(temporary, this.indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads the entries of the given index file.
+     * @param indexFile   The index file to read
+     * @param root        The absolute paths of the scanned directories
+     * @param fingerprint The fingerprint of the scan options
+     * @return The entries, empty if the file belongs to a different directory or options
+     * @throws IOException If the file could not be read or is not a valid index
+     */
+    private static Map<String, Entry> read(Path indexFile, String root, String fingerprint) throws IOException {
+        try (DataInputStream input = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(indexFile)))) {
+            if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+                throw new IOException("Not a valid index file: " + indexFile);
+            }
+            if (!input.readUTF().equals(root + "\u0000" + fingerprint)) {
+                return Collections.emptyMap();
+            }
+
+            final int size = input.readInt();
+            final Map<String, Entry> entries = new HashMap<>(size * 2);
+            for (int i = 0; i < size; i++) {
+                final String path = input.readUTF();
+                final long modifiedTime = input.readLong();
+                final long fileBytes = input.readLong();
+                final long allocatedBytes = input.readLong();
+                final long sharedBytes = input.readLong();
+                final long sharedAllocatedBytes = input.readLong();
+                final int subdirectoryCount = input.readInt();
+
+                final List<String> subdirectories = new ArrayList<>(subdirectoryCount);
+                for (int j = 0; j < subdirectoryCount; j++) {
+                    subdirectories.add(input.readUTF());
+                }
+                entries.put(path, new Entry(modifiedTime, fileBytes, allocatedBytes, sharedBytes, sharedAllocatedBytes,
+                        subdirectories));
+            }
+            return entries;
+        }
+    }
+
+    /**
+     * What the index remembers about a single directory.
+     */
+    static class Entry {
+
+        /**
+         * The modification time of the directory in milliseconds.
+         */
+        private final long modifiedTime;
+
+        /**
+         * The combined size of the counted files directly inside the directory.
+         */
+        private final long fileBytes;
+
+        /**
+         * The combined allocated size of the counted files directly inside the directory.
+         */
+        private final long allocatedBytes;
+
+        /**
+         * The part of the size of the counted files that another .git folder had already counted.
+         */
+        private final long sharedBytes;
+
+        /**
+         * The part of the allocated size of the counted files that another .git folder had already counted.
+         */
+        private final long sharedAllocatedBytes;
+
+        /**
+         * The names of the subdirectories the scan descended into.
+         */
+        private final List<String> subdirectories;
+
+        /**
+         * Constructor for Entry objects.
+         * @param modifiedTime         The modification time of the directory in milliseconds
+         * @param fileBytes            The combined size of the counted files directly inside the directory
+         * @param allocatedBytes       The combined allocated size of the counted files directly inside the directory
+         * @param sharedBytes          The part of the size that another .git folder had already counted
+         * @param sharedAllocatedBytes The part of the allocated size that another .git folder had already counted
+         * @param subdirectories       The names of the subdirectories the scan descended into
+         */
+        Entry(long modifiedTime, long fileBytes, long allocatedBytes, long sharedBytes, long sharedAllocatedBytes,
+              List<String> subdirectories) {
+            this.modifiedTime = modifiedTime;
+            this.fileBytes = fileBytes;
+            this.allocatedBytes = allocatedBytes;
+            this.sharedBytes = sharedBytes;
+            this.sharedAllocatedBytes = sharedAllocatedBytes;
+            this.subdirectories = subdirectories;
+        }
+
+        /**
+         * Returns the combined size of the counted files directly inside the directory.
+         */
+        long getFileBytes() {
+            return this.fileBytes;
+        }
+
+        /**
+         * Returns the combined allocated size of the counted files directly inside the directory.
+         */
+        long getAllocatedBytes() {
+            return this.allocatedBytes;
+        }
+
+        /**
+         * Returns the part of the size that another .git folder had already counted.
+         */
+        long getSharedBytes() {
+            return this.sharedBytes;
+        }
+
+        /**
+         * Returns the part of the allocated size that another .git folder had already counted.
+         */
+        long getSharedAllocatedBytes() {
+            return this.sharedAllocatedBytes;
+        }
+
+        /**
+         * Returns the names of the subdirectories the scan descended into.
+         */
+        List<String> getSubdirectories() {
+            return this.subdirectories;
+        }
+    }
+}
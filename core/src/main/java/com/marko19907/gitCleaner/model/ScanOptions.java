@@ -0,0 +1,173 @@
+package com.marko19907.gitCleaner.model;
+
+import java.nio.file.FileSystems;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Holds the options that control how far a scan descends into the directory tree.
+ * By default, a git project is treated as a leaf: only its .git folder is read and its working tree is skipped.
+ * Symbolic links are not followed and mount points are crossed.
+ */
+public class ScanOptions {
+
+    /**
+     * True if the working trees of git projects should be searched for nested projects and submodules.
+     */
+    private boolean nestedRepositories;
+
+    /**
+     * The glob patterns of directories that should never be entered.
+     */
+    private final List<String> skipPatterns;
+
+    /**
+     * The compiled skip patterns.
+     */
+    private final List<PathMatcher> skipMatchers;
+
+    /**
+     * How the sizes of files are counted.
+     */
+    private SizeMode sizeMode;
+
+    /**
+     * True if symbolic links outside .git folders are followed.
+     */
+    private boolean followLinks;
+
+    /**
+     * True if the scan stays on the file system of the directory it started from.
+     */
+    private boolean sameFileSystem;
+
+    /**
+     * Default no-arg constructor, creates the default options.
+     */
+    public ScanOptions() {
+        this.nestedRepositories = false;
+        this.skipPatterns = new ArrayList<>();
+        this.skipMatchers = new ArrayList<>();
+        this.sizeMode = SizeMode.APPARENT;
+        this.followLinks = false;
+        this.sameFileSystem = false;
+    }
+
+    /**
+     * Sets whether the working trees of git projects should be searched for nested projects and submodules.
+     * @param nestedRepositories True to descend into working trees, false to treat git projects as leaves
+     */
+    public void setNestedRepositories(boolean nestedRepositories) {
+        this.nestedRepositories = nestedRepositories;
+    }
+
+    /**
+     * Returns true if the working trees of git projects are searched for nested projects and submodules.
+     */
+    public boolean isNestedRepositories() {
+        return this.nestedRepositories;
+    }
+
+    /**
+     * Sets how the sizes of files are counted, the apparent size by default.
+     * A scan always counts both, so changing the mode does not invalidate the scan index.
+     * @param sizeMode How to count the sizes of files, not null
+     * @throws IllegalArgumentException If the given size mode is null
+     */
+    public void setSizeMode(SizeMode sizeMode) {
+        // Guard condition
+        if (sizeMode == null) {
+            throw new IllegalArgumentException("The given size mode can not be null!");
+        }
+        this.sizeMode = sizeMode;
+    }
+
+    /**
+     * Returns how the sizes of files are counted.
+     */
+    public SizeMode getSizeMode() {
+        return this.sizeMode;
+    }
+
+    /**
+     * Sets whether symbolic links outside .git folders are followed, they are not by default.
+     * A followed link is scanned like the directory or file it points to. Every directory is only scanned once,
+     * however many links lead to it, so links that loop back into the tree do not make the scan run forever.
+     * Tracking the visited directories costs an attribute read per directory.
+     * @param followLinks True to follow symbolic links, false to skip them
+     */
+    public void setFollowLinks(boolean followLinks) {
+        this.followLinks = followLinks;
+    }
+
+    /**
+     * Returns true if symbolic links outside .git folders are followed.
+     */
+    public boolean isFollowLinks() {
+        return this.followLinks;
+    }
+
+    /**
+     * Returns the link options of the attribute reads of directories and followed files.
+     */
+    LinkOption[] getLinkOptions() {
+        return this.followLinks ? new LinkOption[0] : new LinkOption[] {LinkOption.NOFOLLOW_LINKS};
+    }
+
+    /**
+     * Sets whether the scan stays on the file system of the directory it started from, like find -xdev.
+     * Mount points, and links to other file systems when links are followed, are then not entered,
+     * which keeps bind mounts and network shares out of the scan. Checking the file system of every directory
+     * costs an attribute read per directory.
+     * @param sameFileSystem True to stay on one file system, false to cross mount points
+     */
+    public void setSameFileSystem(boolean sameFileSystem) {
+        this.sameFileSystem = sameFileSystem;
+    }
+
+    /**
+     * Returns true if the scan stays on the file system of the directory it started from.
+     */
+    public boolean isSameFileSystem() {
+        return this.sameFileSystem;
+    }
+
+    /**
+     * Adds a glob pattern of directories that should never be entered, for example "node_modules" or "*.cache".
+     * The pattern is matched against both the name and the absolute path of a directory.
+     * @param glob The glob pattern to add, not null or blank
+     * @throws IllegalArgumentException If the given pattern is null, blank or not a valid glob
+     */
+    public void addSkipPattern(String glob) {
+        if (glob == null || glob.isBlank()) {
+            throw new IllegalArgumentException("The given pattern can not be null or blank!");
+        }
+        this.skipMatchers.add(FileSystems.getDefault().getPathMatcher("glob:" + glob));
+        this.skipPatterns.add(glob);
+    }
+
+    /**
+     * Returns the glob patterns of directories that are never entered.
+     */
+    public List<String> getSkipPatterns() {
+        return Collections.unmodifiableList(this.skipPatterns);
+    }
+
+    /**
+     * Returns true if the given directory matches one of the skip patterns.
+     * @param directory The directory to check, not null
+     */
+    public boolean isSkipped(Path directory) {
+        final Path name = directory.getFileName();
+        for (PathMatcher matcher : this.skipMatchers) {
+            if ((name != null && matcher.matches(name)) || matcher.matches(directory)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,126 @@
+package com.marko19907.gitCleaner.model;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The result of a single pass over a directory tree, holds everything the cleaner needs to know about it.
+ */
+public class ScanResult {
+
+    /**
+     * The combined size of all regular files in the tree.
+     */
+    private final DiskUsage totalUsage;
+
+    /**
+     * The combined size of the files that are counted in more than one .git folder, beyond their first count.
+     */
+    private final DiskUsage sharedUsage;
+
+    /**
+     * The size of each .git folder, keyed by the git project folder that contains it.
+     */
+    private final Map<File, DiskUsage> gitFolderUsages;
+
+    /**
+     * Constructor for ScanResult objects of trees whose .git folders share no files.
+     * @param totalUsage      The combined size of all regular files, not null
+     * @param gitFolderUsages The size of each .git folder, keyed by the git project folder, not null
+     * @throws IllegalArgumentException If the given usage or Map is null
+     */
+    public ScanResult(DiskUsage totalUsage, Map<File, DiskUsage> gitFolderUsages) {
+        this(totalUsage, DiskUsage.EMPTY, gitFolderUsages);
+    }
+
+    /**
+     * Constructor for ScanResult objects.
+     * @param totalUsage      The combined size of all regular files, every file counted once, not null
+     * @param sharedUsage     The combined size of the files counted in more than one .git folder,
+     *                        beyond their first count, not null
+     * @param gitFolderUsages The size of each .git folder, keyed by the git project folder, not null
+     * @throws IllegalArgumentException If one of the given usages or the Map is null
+     */
+    public ScanResult(DiskUsage totalUsage, DiskUsage sharedUsage, Map<File, DiskUsage> gitFolderUsages) {
+        if (totalUsage == null || sharedUsage == null || gitFolderUsages == null) {
+            throw new IllegalArgumentException("The given usages and map can not be null!");
+        }
+        this.totalUsage = totalUsage;
+        this.sharedUsage = sharedUsage;
+        this.gitFolderUsages = Collections.unmodifiableMap(gitFolderUsages);
+    }
+
+    /**
+     * Returns the combined apparent size of all regular files in the tree in bytes.
+     */
+    public long getTotalSize() {
+        return this.totalUsage.apparentBytes();
+    }
+
+    /**
+     * Returns the combined size of all regular files in the tree in bytes, counted the given way.
+     * @param mode How to count, not null
+     */
+    public long getTotalSize(SizeMode mode) {
+        return this.totalUsage.get(mode);
+    }
+
+    /**
+     * Returns the combined apparent size of all .git folders in the tree in bytes.
+     */
+    public long getGitFoldersSize() {
+        return this.getGitFoldersSize(SizeMode.APPARENT);
+    }
+
+    /**
+     * Returns the combined size of all .git folders in the tree in bytes, counted the given way.
+     * @param mode How to count, not null
+     */
+    public long getGitFoldersSize(SizeMode mode) {
+        return this.gitFolderUsages.values().stream().mapToLong(usage -> usage.get(mode)).sum();
+    }
+
+    /**
+     * Returns the size of the files hard linked into more than one .git folder in bytes counted the given way,
+     * local clones share their objects this way. Each .git folder's size includes them, so the sum of the .git
+     * folder sizes exceeds the disk space they take up by this much.
+     * @param mode How to count, not null
+     */
+    public long getSharedGitFoldersSize(SizeMode mode) {
+        return this.sharedUsage.get(mode);
+    }
+
+    /**
+     * Returns the apparent size of each .git folder in bytes, keyed by the git project folder that contains it.
+     */
+    public Map<File, Long> getGitFolderSizes() {
+        return this.getGitFolderSizes(SizeMode.APPARENT);
+    }
+
+    /**
+     * Returns the size of each .git folder in bytes counted the given way, keyed by the git project folder.
+     * @param mode How to count, not null
+     */
+    public Map<File, Long> getGitFolderSizes(SizeMode mode) {
+        final Map<File, Long> sizes = new HashMap<>();
+        this.gitFolderUsages.forEach((project, usage) -> sizes.put(project, usage.get(mode)));
+        return Collections.unmodifiableMap(sizes);
+    }
+
+    /**
+     * Returns the size of each .git folder, keyed by the git project folder that contains it.
+     */
+    public Map<File, DiskUsage> getGitFolderUsages() {
+        return this.gitFolderUsages;
+    }
+
+    /**
+     * Returns a Set of all found git project folders.
+     */
+    public Set<File> getGitFolders() {
+        return this.gitFolderUsages.keySet();
+    }
+}
@@ -0,0 +1,16 @@
+package com.marko19907.gitCleaner.model;
+
+/**
+ * How the size of files is counted.
+ */
+public enum SizeMode {
+    /**
+     * The length of the files, what a directory listing shows.
+     */
+    APPARENT,
+
+    /**
+     * The disk space the files take up, every file is rounded up to whole file system blocks.
+     */
+    ALLOCATED
+}
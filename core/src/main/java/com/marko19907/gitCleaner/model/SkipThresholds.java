@@ -0,0 +1,98 @@
+package com.marko19907.gitCleaner.model;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * The thresholds under which a git project counts as already optimal and is not cleaned.
+ */
+public class SkipThresholds {
+
+    /**
+     * The default maximum number of loose objects, well below the 6700 at which "git gc --auto" kicks in.
+     */
+    public static final int DEFAULT_MAX_LOOSE_OBJECTS = 100;
+
+    /**
+     * The default maximum number of pack files, a single pack is as packed as a project gets.
+     */
+    public static final int DEFAULT_MAX_PACKS = 1;
+
+    /**
+     * The maximum number of loose objects of an optimal project.
+     */
+    private final int maxLooseObjects;
+
+    /**
+     * The maximum number of pack files of an optimal project.
+     */
+    private final int maxPacks;
+
+    /**
+     * The maximum time since the last repack of an optimal project, null for no limit.
+     */
+    private final Duration maxAge;
+
+    /**
+     * Default no-arg constructor, uses the default thresholds and no age limit.
+     */
+    public SkipThresholds() {
+        this(DEFAULT_MAX_LOOSE_OBJECTS, DEFAULT_MAX_PACKS, null);
+    }
+
+    /**
+     * Constructor for SkipThresholds objects.
+     * @param maxLooseObjects The maximum number of loose objects, not negative
+     * @param maxPacks        The maximum number of pack files, not negative
+     * @param maxAge          The maximum time since the last repack, null for no limit
+     * @throws IllegalArgumentException If one of the limits is negative
+     */
+    public SkipThresholds(int maxLooseObjects, int maxPacks, Duration maxAge) {
+        if (maxLooseObjects < 0 || maxPacks < 0 || (maxAge != null && maxAge.isNegative())) {
+            throw new IllegalArgumentException("The thresholds can not be negative!");
+        }
+        this.maxLooseObjects = maxLooseObjects;
+        this.maxPacks = maxPacks;
+        this.maxAge = maxAge;
+    }
+
+    /**
+     * Returns true if the given statistics are under all thresholds, meaning cleaning would gain nothing.
+     * A project without any objects is always optimal, a project that has never been packed otherwise never is.
+     * @param stats The statistics to check, not null
+     * @param now   The current time
+     */
+    public boolean isOptimal(RepositoryStats stats, Instant now) {
+        if (stats.getLooseObjects() == 0 && stats.getPacks() == 0) {
+            return true;
+        }
+        if (stats.getLastGcTime() == null) {
+            return false;
+        }
+        if (this.maxAge != null && stats.getLastGcTime().plus(this.maxAge).isBefore(now)) {
+            return false;
+        }
+        return stats.getLooseObjects() <= this.maxLooseObjects && stats.getPacks() <= this.maxPacks;
+    }
+
+    /**
+     * Returns the maximum number of loose objects of an optimal project.
+     */
+    public int getMaxLooseObjects() {
+        return this.maxLooseObjects;
+    }
+
+    /**
+     * Returns the maximum number of pack files of an optimal project.
+     */
+    public int getMaxPacks() {
+        return this.maxPacks;
+    }
+
+    /**
+     * Returns the maximum time since the last repack of an optimal project, null for no limit.
+     */
+    public Duration getMaxAge() {
+        return this.maxAge;
+    }
+}
@@ -0,0 +1,93 @@
+package com.marko19907.gitCleaner.model;
+
+/**
+ * A policy that picks the cheapest tier that is still worth running for a git project.
+ * <ul>
+ *     <li>Few loose objects and packs: {@link MaintenanceTier#LIGHT}, the loose objects are packed into one more
+ *     pack, once the packs exceed the light limit a later run consolidates them with a heavier tier</li>
+ *     <li>Large projects: {@link MaintenanceTier#INCREMENTAL}, a full repack would take too long</li>
+ *     <li>Moderately fragmented projects: {@link MaintenanceTier#STANDARD}</li>
+ *     <li>Heavily fragmented or never packed projects: {@link MaintenanceTier#AGGRESSIVE}</li>
+ * </ul>
+ */
+public class TieredMaintenancePolicy implements MaintenancePolicy {
+
+    /**
+     * The default maximum number of loose objects for the light tier.
+     */
+    public static final int DEFAULT_LIGHT_LOOSE_OBJECTS = 1000;
+
+    /**
+     * The default maximum number of packs for the light tier.
+     */
+    public static final int DEFAULT_LIGHT_PACKS = 4;
+
+    /**
+     * The default maximum number of packs for the standard tier.
+     */
+    public static final int DEFAULT_STANDARD_PACKS = 50;
+
+    /**
+     * The default .git folder size from which on only the incremental tier is used.
+     */
+    public static final long DEFAULT_LARGE_PROJECT_SIZE = 2L * 1024L * 1024L * 1024L;
+
+    /**
+     * The maximum number of loose objects for the light tier.
+     */
+    private final int lightLooseObjects;
+
+    /**
+     * The maximum number of packs for the light tier.
+     */
+    private final int lightPacks;
+
+    /**
+     * The maximum number of packs for the standard tier.
+     */
+    private final int standardPacks;
+
+    /**
+     * The .git folder size from which on only the incremental tier is used.
+     */
+    private final long largeProjectSize;
+
+    /**
+     * Default no-arg constructor, uses the default limits.
+     */
+    public TieredMaintenancePolicy() {
+        this(DEFAULT_LIGHT_LOOSE_OBJECTS, DEFAULT_LIGHT_PACKS, DEFAULT_STANDARD_PACKS, DEFAULT_LARGE_PROJECT_SIZE);
+    }
+
+    /**
+     * Constructor for TieredMaintenancePolicy objects.
+     * @param lightLooseObjects The maximum number of loose objects for the light tier
+     * @param lightPacks        The maximum number of packs for the light tier
+     * @param standardPacks     The maximum number of packs for the standard tier
+     * @param largeProjectSize  The .git folder size in bytes from which on only the incremental tier is used
+     * @throws IllegalArgumentException If one of the limits is negative
+     */
+    public TieredMaintenancePolicy(int lightLooseObjects, int lightPacks, int standardPacks, long largeProjectSize) {
+        if (lightLooseObjects < 0 || lightPacks < 0 || standardPacks < 0 || largeProjectSize < 0) {
+            throw new IllegalArgumentException("The limits can not be negative!");
+        }
+        this.lightLooseObjects = lightLooseObjects;
+        this.lightPacks = lightPacks;
+        this.standardPacks = standardPacks;
+        this.largeProjectSize = largeProjectSize;
+    }
+
+    @Override
+    public MaintenanceStrategy select(RepositoryStats stats, long gitFolderSize) {
+        if (stats.getLooseObjects() <= this.lightLooseObjects && stats.getPacks() <= this.lightPacks) {
+            return MaintenanceTier.LIGHT;
+        }
+        if (gitFolderSize >= this.largeProjectSize) {
+            return MaintenanceTier.INCREMENTAL;
+        }
+        if (stats.getLastGcTime() != null && stats.getPacks() <= this.standardPacks) {
+            return MaintenanceTier.STANDARD;
+        }
+        return MaintenanceTier.AGGRESSIVE;
+    }
+}
@@ -0,0 +1,73 @@
+package com.marko19907.gitCleaner.utilities;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.text.CharacterIterator;
+import java.text.StringCharacterIterator;
+import java.util.Collection;
+import java.util.StringJoiner;
+
+public class Utilities {
+
+    /**
+     * Formats the given size in bytes to a human-readable format, binary unites (1 K = 1,024).
+     * @param size The size in bytes to format
+     */
+    public static String formatSize(long size) {
+        long absB = size == Long.MIN_VALUE ? Long.MAX_VALUE : Math.abs(size);
+        if (absB < 1024) {
+            return size + " B";
+        }
+        long value = absB;
+        CharacterIterator ci = new StringCharacterIterator("KMGTPE");
+        for (int i = 40; i >= 0 && absB > 0xfffccccccccccccL >> i; i -= 10) {
+            value >>= 10;
+            ci.next();
+        }
+        value *= Long.signum(size);
+        return String.format("%.1f %cB", value / 1024.0, ci.current());
+    }
+
+    /**
+     * Returns the program's directory inside the user cache directory,
+     * follows the platform convention for where cache files belong.
+     */
+    public static Path getCacheDirectory() {
+        final String os = System.getProperty("os.name", "").toLowerCase();
+        final Path home = Path.of(System.getProperty("user.home"));
+        final Path cacheRoot;
+
+        if (os.startsWith("windows") && System.getenv("LOCALAPPDATA") != null) {
+            cacheRoot = Path.of(System.getenv("LOCALAPPDATA"));
+        }
+        else if (os.startsWith("mac")) {
+            cacheRoot = home.resolve("Library").resolve("Caches");
+        }
+        else if (System.getenv("XDG_CACHE_HOME") != null) {
+            cacheRoot = Path.of(System.getenv("XDG_CACHE_HOME"));
+        }
+        else {
+            cacheRoot = home.resolve(".cache");
+        }
+
+        return cacheRoot.resolve("gitCleaner");
+    }
+
+    /**
+     * Joins the absolute paths of the given files with the platform path separator, in the given order.
+     * A single file gives its absolute path, so a set of directories can be keyed like a single one.
+     * @param files The files to join
+     */
+    public static String joinPaths(Collection<File> files) {
+        final StringJoiner joiner = new StringJoiner(File.pathSeparator);
+        for (File file : files) {
+            joiner.add(file.getAbsolutePath());
+        }
+        return joiner.toString();
+    }
+
+    public static void main(String[] args) {
+        String result = formatSize(19751349);
+        System.out.println(result);
+    }
+}
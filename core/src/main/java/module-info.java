@@ -0,0 +1,10 @@
+module gitCleaner.core {
+    requires java.management;
+    requires jdk.jfr;
+    requires jdk.management;
+
+    exports com.marko19907.gitCleaner.cli;
+    exports com.marko19907.gitCleaner.metrics;
+    exports com.marko19907.gitCleaner.model;
+    exports com.marko19907.gitCleaner.utilities;
+}
@@ -0,0 +1,155 @@
+package com.marko19907.gitCleaner.model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the {@link CheckpointJournal}.
+ */
+class CheckpointJournalTest {
+
+    /**
+     * The cache directory the journal is written to.
+     */
+    @TempDir
+    Path cache;
+
+    /**
+     * The directory the cleaned directory is created in.
+     */
+    @TempDir
+    Path temp;
+
+    /**
+     * The directory that is "cleaned".
+     */
+    private File root;
+
+    /**
+     * Creates the cleaned directory.
+     */
+    @BeforeEach
+    void setUp() throws IOException {
+        this.root = Files.createDirectories(this.temp.resolve("source tree")).toFile();
+    }
+
+    /**
+     * Opens the journal of the cleaned directory in the temporary cache directory.
+     * @param resume True to continue an incomplete generation
+     */
+    private CheckpointJournal open(boolean resume) throws IOException {
+        return CheckpointJournal.open(List.of(this.root), resume, this.cache);
+    }
+
+    /**
+     * Returns a cleaned result of the given folder in the root directory.
+     * @param name     The name of the git folder
+     * @param strategy The strategy name, null if none
+     */
+    private CleaningResult cleaned(String name, String strategy) {
+        return new CleaningResult(new File(this.root, name), 2048, 1024, Duration.ofMillis(1500), strategy, 0,
+                CleaningResult.Status.CLEANED);
+    }
+
+    @Test
+    void recordedResultsAreReadBackWhenResuming() throws IOException {
+        final CleaningResult spaces = this.cleaned("with spaces", "custom gc --prune");
+        final CleaningResult skipped = new CleaningResult(new File(this.root, "skipped"), 10, 10, Duration.ZERO,
+                null, -1, CleaningResult.Status.SKIPPED);
+        final CleaningResult dash = this.cleaned("dash", "-");
+        final long generation;
+        try (CheckpointJournal journal = this.open(false)) {
+            generation = journal.getGeneration();
+            journal.record(spaces);
+            journal.record(skipped);
+            journal.record(dash);
+        }
+
+        try (CheckpointJournal journal = this.open(true)) {
+            assertEquals(generation, journal.getGeneration());
+            final Map<File, CleaningResult> finished = journal.getFinished();
+            assertEquals(3, finished.size());
+            assertEquals(spaces, finished.get(spaces.folder()));
+            assertEquals(skipped, finished.get(skipped.folder()));
+            assertEquals(dash, finished.get(dash.folder()));
+        }
+    }
+
+    @Test
+    void failedResultsAreNotJournaled() throws IOException {
+        try (CheckpointJournal journal = this.open(false)) {
+            journal.record(new CleaningResult(new File(this.root, "failed"), 10, 10, Duration.ZERO, "gc", 1,
+                    CleaningResult.Status.FAILED));
+        }
+
+        try (CheckpointJournal journal = this.open(true)) {
+            assertTrue(journal.getFinished().isEmpty());
+        }
+    }
+
+    @Test
+    void tornLastLineIsIgnoredAndEnded() throws IOException {
+        final CleaningResult first = this.cleaned("first", "aggressive");
+        final Path journalFile;
+        try (CheckpointJournal journal = this.open(false)) {
+            journal.record(first);
+            journalFile = journal.getJournalFile();
+        }
+        // A crash in the middle of writing the next record
+        Files.writeString(journalFile, "D CLEANED 0 12", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        final CleaningResult second = this.cleaned("second", "aggressive");
+        try (CheckpointJournal journal = this.open(true)) {
+            assertEquals(Map.of(first.folder(), first), journal.getFinished());
+            journal.record(second);
+        }
+
+        try (CheckpointJournal journal = this.open(true)) {
+            assertEquals(Map.of(first.folder(), first, second.folder(), second), journal.getFinished());
+        }
+    }
+
+    @Test
+    void completeGenerationIsNotResumed() throws IOException {
+        final long generation;
+        try (CheckpointJournal journal = this.open(false)) {
+            generation = journal.getGeneration();
+            journal.record(this.cleaned("done", "aggressive"));
+            journal.complete();
+        }
+
+        try (CheckpointJournal journal = this.open(true)) {
+            assertNotEquals(generation, journal.getGeneration());
+            assertTrue(journal.getFinished().isEmpty());
+        }
+    }
+
+    @Test
+    void freshRunStartsOverWithoutResume() throws IOException {
+        try (CheckpointJournal journal = this.open(false)) {
+            journal.record(this.cleaned("done", "aggressive"));
+        }
+
+        try (CheckpointJournal journal = this.open(false)) {
+            assertTrue(journal.getFinished().isEmpty());
+        }
+        try (CheckpointJournal journal = this.open(true)) {
+            assertTrue(journal.getFinished().isEmpty());
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.marko19907.gitCleaner.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the {@link CleaningReport}.
+ */
+class CleaningReportTest {
+
+    /**
+     * Returns a cleaned result of the given folder that reclaimed 100 bytes.
+     * @param path     The absolute path of the folder
+     * @param strategy The strategy name, null if none
+     */
+    private static CleaningResult cleaned(String path, String strategy) {
+        return new CleaningResult(new File(path), 300, 200, Duration.ofMillis(42), strategy, 0,
+                CleaningResult.Status.CLEANED);
+    }
+
+    @Test
+    void jsonEscapesQuotesBackslashesAndControlCharacters() {
+        final CleaningReport report = new CleaningReport(List.of(
+                cleaned("/src/say \"hi\"\\back\nline\ttab\u0001", "custom \"gc\""),
+                new CleaningResult(new File("/src/plain"), 10, 10, Duration.ZERO, null, -1,
+                        CleaningResult.Status.SKIPPED)), 1000, 64);
+
+        assertEquals("{\"totalSizeBefore\":1000,\"gitFoldersSizeBefore\":310,\"gitFoldersSizeAfter\":210,"
+                + "\"bytesReclaimed\":100,\"sharedSizeBefore\":64,\"results\":["
+                + "{\"folder\":\"/src/say \\\"hi\\\"\\\\back\\nline\\ttab\\u0001\",\"status\":\"CLEANED\","
+                + "\"strategy\":\"custom \\\"gc\\\"\",\"exitCode\":0,\"durationMillis\":42,"
+                + "\"sizeBefore\":300,\"sizeAfter\":200,\"bytesReclaimed\":100},"
+                + "{\"folder\":\"/src/plain\",\"status\":\"SKIPPED\",\"strategy\":null,\"exitCode\":-1,"
+                + "\"durationMillis\":0,\"sizeBefore\":10,\"sizeAfter\":10,\"bytesReclaimed\":0}]}",
+                report.toJson());
+    }
+
+    @Test
+    void csvQuotesFieldsWithSeparatorsQuotesAndLineBreaks() {
+        final CleaningReport report = new CleaningReport(List.of(
+                cleaned("/src/a,b", "aggressive"),
+                cleaned("/src/say \"hi\"", "light"),
+                cleaned("/src/two\nlines", "custom, tuned"),
+                cleaned("/src/plain", null)), -1);
+
+        assertEquals("folder,status,strategy,exitCode,durationMillis,sizeBefore,sizeAfter,bytesReclaimed\n"
+                + "\"/src/a,b\",CLEANED,aggressive,0,42,300,200,100\n"
+                + "\"/src/say \"\"hi\"\"\",CLEANED,light,0,42,300,200,100\n"
+                + "\"/src/two\nlines\",CLEANED,\"custom, tuned\",0,42,300,200,100\n"
+                + "/src/plain,CLEANED,,0,42,300,200,100\n",
+                report.toCsv());
+    }
+
+    @Test
+    void textReportShowsTheTotalsWhenTheSizeWasMeasured() {
+        final CleaningReport measured = new CleaningReport(List.of(cleaned("/src/a", "light")), 1000);
+        assertTrue(measured.toString().startsWith("Size before: "));
+
+        final CleaningReport unmeasured = new CleaningReport(List.of(cleaned("/src/a", "light")), -1);
+        assertTrue(unmeasured.toString().startsWith("Size of all .git folders before: "));
+    }
+}
@@ -0,0 +1,141 @@
+package com.marko19907.gitCleaner.model;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the {@link CleaningScheduler}.
+ */
+class CleaningSchedulerTest {
+
+    /**
+     * The memory a small job reserves, the scheduler's minimum.
+     */
+    private static final long SMALL_JOB_MEMORY = 64L * 1024L * 1024L;
+
+    /**
+     * A .git folder size that needs four pack threads.
+     */
+    private static final long LARGE_GIT_FOLDER = 4L * 256L * 1024L * 1024L;
+
+    /**
+     * The names of the jobs in the order their reservations were granted.
+     */
+    private List<String> granted;
+
+    /**
+     * The threads of the waiting jobs.
+     */
+    private List<Thread> jobs;
+
+    /**
+     * Creates the empty grant order.
+     */
+    @BeforeEach
+    void setUp() {
+        this.granted = Collections.synchronizedList(new ArrayList<>());
+        this.jobs = new ArrayList<>();
+    }
+
+    /**
+     * Stops the jobs that are still waiting.
+     */
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        for (Thread job : this.jobs) {
+            job.interrupt();
+            job.join();
+        }
+    }
+
+    /**
+     * Starts a job that records its name once its reservation is granted and releases it right away,
+     * and waits until the job is queued in the scheduler.
+     * @param scheduler     The scheduler
+     * @param name          The name of the job
+     * @param gitFolderSize The size of the job's .git folder
+     */
+    private void startQueuedJob(CleaningScheduler scheduler, String name, long gitFolderSize)
+            throws InterruptedException {
+        final Thread job = new Thread(() -> {
+            try (CleaningScheduler.Reservation reservation = scheduler.acquire(gitFolderSize, MaintenanceTier.LIGHT)) {
+                this.granted.add(name);
+            }
+            catch (InterruptedException e) {
+                // Stopped by the test
+            }
+        }, name);
+        this.jobs.add(job);
+        job.start();
+
+        // A job that waits for its turn parks on the scheduler's condition
+        while (job.getState() != Thread.State.WAITING) {
+            assertTrue(job.isAlive(), "The job " + name + " did not wait for its turn");
+            Thread.sleep(1);
+        }
+    }
+
+    /**
+     * Waits until every started job has finished.
+     */
+    private void joinJobs() throws InterruptedException {
+        for (Thread job : this.jobs) {
+            job.join(10_000);
+        }
+    }
+
+    @Test
+    void reservationsAreGrantedInRequestOrder() throws InterruptedException {
+        final CleaningScheduler scheduler = new CleaningScheduler(SMALL_JOB_MEMORY, 1);
+        final CleaningScheduler.Reservation running = scheduler.acquire(0, MaintenanceTier.LIGHT);
+
+        this.startQueuedJob(scheduler, "first", 0);
+        this.startQueuedJob(scheduler, "second", 0);
+        this.startQueuedJob(scheduler, "third", 0);
+        this.startQueuedJob(scheduler, "fourth", 0);
+        assertTrue(this.granted.isEmpty());
+
+        running.close();
+        this.joinJobs();
+        assertEquals(List.of("first", "second", "third", "fourth"), this.granted);
+    }
+
+    @Test
+    void waitingLargeJobIsNotOvertakenBySmallOnes() throws InterruptedException {
+        final CleaningScheduler scheduler = new CleaningScheduler(64L * SMALL_JOB_MEMORY, 4);
+        final CleaningScheduler.Reservation running = scheduler.acquire(0, MaintenanceTier.LIGHT);
+
+        // The large job needs every thread, the small ones would fit into the three that are free
+        this.startQueuedJob(scheduler, "large", LARGE_GIT_FOLDER);
+        this.startQueuedJob(scheduler, "small", 0);
+        assertTrue(this.granted.isEmpty());
+
+        running.close();
+        this.joinJobs();
+        assertEquals(List.of("large", "small"), this.granted);
+    }
+
+    @Test
+    void interruptedJobLeavesTheQueue() throws InterruptedException {
+        final CleaningScheduler scheduler = new CleaningScheduler(SMALL_JOB_MEMORY, 1);
+        final CleaningScheduler.Reservation running = scheduler.acquire(0, MaintenanceTier.LIGHT);
+
+        this.startQueuedJob(scheduler, "interrupted", 0);
+        this.startQueuedJob(scheduler, "next", 0);
+        final Thread interrupted = this.jobs.remove(0);
+        interrupted.interrupt();
+        interrupted.join();
+
+        running.close();
+        this.joinJobs();
+        assertEquals(List.of("next"), this.granted);
+    }
+}
@@ -0,0 +1,163 @@
+package com.marko19907.gitCleaner.model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+/**
+ * Tests for the {@link GitFolderSearch}.
+ */
+class GitFolderSearchTest {
+
+    /**
+     * The size of the file inside every test project's .git folder.
+     */
+    private static final int OBJECT_SIZE = 1000;
+
+    /**
+     * The directory the test trees are created in.
+     */
+    @TempDir
+    Path temp;
+
+    /**
+     * The real path of the temporary directory, the scan reports real paths.
+     */
+    private Path root;
+
+    /**
+     * Resolves the temporary directory to its real path.
+     */
+    @BeforeEach
+    void setUp() throws IOException {
+        this.root = this.temp.toRealPath();
+    }
+
+    /**
+     * Creates a git project with a single object file of {@link #OBJECT_SIZE} bytes in its .git folder.
+     * @param project The project directory
+     * @return The project directory
+     */
+    private static Path createProject(Path project) throws IOException {
+        final Path objects = Files.createDirectories(project.resolve(".git").resolve("objects"));
+        Files.write(objects.resolve("pack"), new byte[OBJECT_SIZE]);
+        return project;
+    }
+
+    @Test
+    void nestedAndDuplicateRootsAreDropped() throws IOException {
+        final Path parent = Files.createDirectories(this.root.resolve("parent"));
+        final Path child = Files.createDirectories(parent.resolve("child"));
+        final Path sibling = Files.createDirectories(this.root.resolve("parent-sibling"));
+
+        final List<File> roots = GitFolderSearch.getDistinctRoots(List.of(
+                child.toFile(), parent.toFile(), parent.resolve(".").toFile(), sibling.toFile(),
+                sibling.resolve("..").resolve("parent-sibling").toFile()));
+
+        // "parent-sibling" starts with the characters of "parent", but is not inside it
+        assertEquals(List.of(parent.toFile(), sibling.toFile()), roots);
+    }
+
+    @Test
+    void symlinkedRootsAreResolved() throws IOException {
+        final Path real = Files.createDirectories(this.root.resolve("real"));
+        final Path link = Files.createSymbolicLink(this.root.resolve("link"), real);
+        final Path linkToChild = Files.createSymbolicLink(this.root.resolve("child-link"),
+                Files.createDirectories(real.resolve("child")));
+
+        final List<File> roots = GitFolderSearch.getDistinctRoots(List.of(
+                link.toFile(), real.toFile(), linkToChild.toFile()));
+
+        assertEquals(List.of(real.toFile()), roots);
+    }
+
+    @Test
+    void overlappingRootsAreScannedOnce() throws IOException {
+        final Path tree = Files.createDirectories(this.root.resolve("tree"));
+        final Path first = createProject(tree.resolve("first"));
+        final Path second = createProject(tree.resolve("nested").resolve("second"));
+        final Path link = Files.createSymbolicLink(this.root.resolve("link"), tree);
+
+        final ScanResult result = new GitFolderSearch().scan(List.of(
+                tree.toFile(), link.toFile(), second.toFile(), tree.resolve("nested").toFile()));
+
+        assertEquals(Set.of(first.toFile(), second.toFile()), result.getGitFolders());
+        assertEquals(2L * OBJECT_SIZE, result.getGitFoldersSize());
+        assertEquals(2L * OBJECT_SIZE, result.getTotalSize());
+    }
+
+    @Test
+    void symlinkLoopToAncestorIsWalkedOnceWithFollowLinks() throws IOException {
+        final Path tree = Files.createDirectories(this.root.resolve("tree"));
+        final Path project = createProject(tree.resolve("project"));
+        final Path deep = Files.createDirectories(project.resolve("src").resolve("main"));
+        Files.createSymbolicLink(deep.resolve("loop"), tree);
+        Files.createSymbolicLink(tree.resolve("project-link"), project);
+
+        final ScanOptions options = new ScanOptions();
+        options.setFollowLinks(true);
+        options.setNestedRepositories(true);
+        final ScanResult result = assertTimeoutPreemptively(Duration.ofSeconds(30),
+                () -> new GitFolderSearch(options).scan(tree.toFile()));
+
+        // The workers race to the project, it is reported under the path that reached it first
+        assertEquals(1, result.getGitFolders().size());
+        final File found = result.getGitFolders().iterator().next();
+        assertEquals(project, found.toPath().toRealPath());
+        assertEquals(OBJECT_SIZE, result.getGitFoldersSize());
+        assertEquals(OBJECT_SIZE, result.getTotalSize());
+    }
+
+    @Test
+    void worktreeWithGitFileIsSearchedForNestedProjects() throws IOException {
+        final Path tree = Files.createDirectories(this.root.resolve("tree"));
+        final Path worktree = Files.createDirectories(tree.resolve("worktree"));
+        Files.writeString(worktree.resolve(".git"), "gitdir: /elsewhere/.git/worktrees/worktree\n");
+        final Path nested = createProject(worktree.resolve("vendor").resolve("nested"));
+
+        final ScanResult result = new GitFolderSearch().scan(tree.toFile());
+
+        // The .git file does not make the worktree a project, its working tree is still searched
+        assertEquals(Set.of(nested.toFile()), result.getGitFolders());
+        assertEquals(OBJECT_SIZE, result.getGitFoldersSize());
+    }
+
+    @Test
+    void hardLinksAreCountedOncePerGitFolderAndOnceInTheTotal() throws IOException {
+        final Path tree = Files.createDirectories(this.root.resolve("tree"));
+        final Path original = createProject(tree.resolve("original"));
+        final Path clone = tree.resolve("clone");
+        final Path cloneObjects = Files.createDirectories(clone.resolve(".git").resolve("objects"));
+        final Path originalObjects = original.resolve(".git").resolve("objects");
+        // A local clone hard links the packs of the original
+        Files.createLink(cloneObjects.resolve("pack"), originalObjects.resolve("pack"));
+        // A file linked twice inside a single .git folder
+        final Path index = Files.write(original.resolve(".git").resolve("index"), new byte[300]);
+        Files.createLink(original.resolve(".git").resolve("index.lock"), index);
+
+        final ScanResult result = new GitFolderSearch().scan(tree.toFile());
+
+        // Each folder is measured on its own, like it is measured again after cleaning
+        assertEquals(OBJECT_SIZE + 300L, result.getGitFolderSizes().get(original.toFile()));
+        assertEquals((long) OBJECT_SIZE, result.getGitFolderSizes().get(clone.toFile()));
+        assertEquals(GitFolderSearch.measureGitFolder(original.toFile()),
+                result.getGitFolderSizes().get(original.toFile()));
+        assertEquals(GitFolderSearch.measureGitFolder(clone.toFile()), result.getGitFolderSizes().get(clone.toFile()));
+        // Every file takes up its space once
+        assertEquals(OBJECT_SIZE + 300L, result.getTotalSize());
+        assertEquals(OBJECT_SIZE, result.getSharedGitFoldersSize(SizeMode.APPARENT));
+        assertEquals(result.getTotalSize() + result.getSharedGitFoldersSize(SizeMode.APPARENT),
+                result.getGitFoldersSize());
+    }
+}
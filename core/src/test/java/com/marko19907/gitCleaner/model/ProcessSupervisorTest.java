@@ -0,0 +1,61 @@
+package com.marko19907.gitCleaner.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the {@link ProcessSupervisor}.
+ */
+class ProcessSupervisorTest {
+
+    /**
+     * The working directory of the processes.
+     */
+    @TempDir
+    Path directory;
+
+    @Test
+    void zeroOrNegativeTimeoutIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new ProcessSupervisor(Duration.ZERO, 1024));
+        assertThrows(IllegalArgumentException.class, () -> new ProcessSupervisor(Duration.ofSeconds(-1), 1024));
+        assertThrows(IllegalArgumentException.class, () -> new ProcessSupervisor(null, 1024));
+    }
+
+    @Test
+    void zeroOrNegativeCleanerTimeoutIsRejected() {
+        final GitCleaner cleaner = new GitCleaner(this.directory.toFile(), new ScanOptions());
+        assertThrows(IllegalArgumentException.class, () -> cleaner.setTimeout(Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> cleaner.setTimeout(Duration.ofMinutes(-1)));
+    }
+
+    @Test
+    @DisabledOnOs(OS.WINDOWS)
+    void processWithinTheTimeoutIsNotKilled() throws IOException, InterruptedException {
+        final ProcessSupervisor supervisor = new ProcessSupervisor(Duration.ofSeconds(30), 1024);
+        final ProcessOutcome outcome = supervisor.run(List.of("sh", "-c", "sleep 0.1"), this.directory.toFile());
+
+        assertTrue(outcome.isSuccess());
+        assertFalse(outcome.isTimedOut());
+    }
+
+    @Test
+    @DisabledOnOs(OS.WINDOWS)
+    void processPastTheTimeoutIsKilled() throws IOException, InterruptedException {
+        final ProcessSupervisor supervisor = new ProcessSupervisor(Duration.ofMillis(200), 1024);
+        final ProcessOutcome outcome = supervisor.run(List.of("sh", "-c", "sleep 30"), this.directory.toFile());
+
+        assertFalse(outcome.isSuccess());
+        assertTrue(outcome.isTimedOut());
+    }
+}
@@ -0,0 +1,150 @@
+package com.marko19907.gitCleaner.model;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Tests for the {@link ScanIndex}.
+ */
+class ScanIndexTest {
+
+    /**
+     * The cache directory the index is written to.
+     */
+    @TempDir
+    Path cache;
+
+    /**
+     * The directory the scanned tree is created in.
+     */
+    @TempDir
+    Path temp;
+
+    /**
+     * The scanned directory.
+     */
+    private Path root;
+
+    /**
+     * The objects directory of the test project.
+     */
+    private Path objects;
+
+    /**
+     * Creates a project with a 1000 byte object.
+     */
+    @BeforeEach
+    void setUp() throws IOException {
+        this.root = Files.createDirectories(this.temp.toRealPath().resolve("tree"));
+        this.objects = Files.createDirectories(this.root.resolve("project").resolve(".git").resolve("objects"));
+        Files.write(this.objects.resolve("pack"), new byte[1000]);
+    }
+
+    /**
+     * Scans the root directory with its index and saves the updated index, like the cleaner does.
+     * @param options The scan options
+     * @return The combined size of the .git folders
+     */
+    private long scanWithIndex(ScanOptions options) throws IOException {
+        final ScanIndex index = ScanIndex.load(List.of(this.root.toFile()), options, this.cache);
+        final GitFolderSearch search = new GitFolderSearch(options);
+        search.setIndex(index);
+        final ScanResult result = search.scan(this.root.toFile());
+        index.save();
+        return result.getGitFoldersSize();
+    }
+
+    /**
+     * Rewrites the object in place with the given size, keeping the modification time of its directory,
+     * so only a scan that reads the directory again notices the change.
+     * @param size The new size of the object
+     */
+    private void rewriteObjectInPlace(int size) throws IOException {
+        final FileTime modified = Files.getLastModifiedTime(this.objects);
+        Files.write(this.objects.resolve("pack"), new byte[size]);
+        Files.setLastModifiedTime(this.objects, modified);
+    }
+
+    @Test
+    void entriesAreReadBackWhileTheModificationTimeIsUnchanged() throws IOException {
+        final ScanOptions options = new ScanOptions();
+        final ScanIndex index = ScanIndex.load(List.of(this.root.toFile()), options, this.cache);
+        index.record(this.objects, new ScanIndex.Entry(1234L, 1000L, 4096L, 100L, 512L, List.of("pack")));
+        index.save();
+
+        final ScanIndex loaded = ScanIndex.load(List.of(this.root.toFile()), options, this.cache);
+        final ScanIndex.Entry entry = loaded.lookup(this.objects, 1234L);
+        assertNotNull(entry);
+        assertEquals(1000L, entry.getFileBytes());
+        assertEquals(4096L, entry.getAllocatedBytes());
+        assertEquals(100L, entry.getSharedBytes());
+        assertEquals(512L, entry.getSharedAllocatedBytes());
+        assertEquals(List.of("pack"), entry.getSubdirectories());
+        assertNull(loaded.lookup(this.objects, 1235L));
+    }
+
+    @Test
+    void unchangedDirectoryIsTakenFromTheIndex() throws IOException {
+        final ScanOptions options = new ScanOptions();
+        assertEquals(1000L, this.scanWithIndex(options));
+
+        this.rewriteObjectInPlace(3000);
+
+        // The directory was not listed again, so the index still has the old size
+        assertEquals(1000L, this.scanWithIndex(options));
+    }
+
+    @Test
+    void modificationTimeChangeInvalidatesTheEntry() throws IOException {
+        final ScanOptions options = new ScanOptions();
+        assertEquals(1000L, this.scanWithIndex(options));
+
+        this.rewriteObjectInPlace(3000);
+        Files.setLastModifiedTime(this.objects,
+                FileTime.fromMillis(Files.getLastModifiedTime(this.objects).toMillis() + 2000));
+
+        assertEquals(3000L, this.scanWithIndex(options));
+    }
+
+    @Test
+    void fingerprintChangeInvalidatesTheIndex() throws IOException {
+        assertEquals(1000L, this.scanWithIndex(new ScanOptions()));
+
+        this.rewriteObjectInPlace(3000);
+
+        final ScanOptions followLinks = new ScanOptions();
+        followLinks.setFollowLinks(true);
+        assertEquals(3000L, this.scanWithIndex(followLinks));
+
+        this.rewriteObjectInPlace(5000);
+
+        final ScanOptions skipping = new ScanOptions();
+        skipping.setFollowLinks(true);
+        skipping.addSkipPattern("node_modules");
+        assertEquals(5000L, this.scanWithIndex(skipping));
+    }
+
+    @Test
+    void differentRootsDoNotShareEntries() throws IOException {
+        final ScanOptions options = new ScanOptions();
+        final ScanIndex index = ScanIndex.load(List.of(this.root.toFile()), options, this.cache);
+        index.record(this.objects, new ScanIndex.Entry(1234L, 1000L, 4096L, 0L, 0L, List.of()));
+        index.save();
+
+        final File other = this.root.resolveSibling("other").toFile();
+        final ScanIndex loaded = ScanIndex.load(List.of(this.root.toFile(), other), options, this.cache);
+        assertNull(loaded.lookup(this.objects, 1234L));
+    }
+}
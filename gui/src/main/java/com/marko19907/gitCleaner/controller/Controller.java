@@ -0,0 +1,373 @@
+package com.marko19907.gitCleaner.controller;
+
+import com.marko19907.gitCleaner.model.CancellationToken;
+import com.marko19907.gitCleaner.model.CleaningResult;
+import com.marko19907.gitCleaner.model.GitCleaner;
+import com.marko19907.gitCleaner.model.ProgressEvent;
+import com.marko19907.gitCleaner.model.ScanOptions;
+import com.marko19907.gitCleaner.utilities.CleaningInterruptedException;
+import com.marko19907.gitCleaner.utilities.Utilities;
+import com.marko19907.gitCleaner.view.Dialogs;
+import com.marko19907.gitCleaner.view.ProgressDialog;
+import com.marko19907.gitCleaner.view.RepositoryRow;
+import com.marko19907.gitCleaner.view.RepositoryTable;
+import javafx.concurrent.Task;
+import javafx.scene.control.Button;
+import javafx.scene.control.TextField;
+import javafx.stage.DirectoryChooser;
+import javafx.stage.Modality;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The main controller.
+ */
+public class Controller {
+
+    /**
+     * The selected folders in the UI, cleaned together in a single run. Empty if none is selected.
+     */
+    private final List<File> selectedDirectories;
+
+    /**
+     * The logic, written by the analysis thread.
+     */
+    private volatile GitCleaner cleanerLogic;
+
+    /**
+     * The token of the running analysis, only its frames are shown. Only used on the FX thread.
+     */
+    private CancellationToken analysisCancellation;
+
+    /**
+     * Default no-arg constructor.
+     */
+    public Controller() {
+        this.selectedDirectories = new ArrayList<>();
+        this.cleanerLogic = null;
+        this.analysisCancellation = null;
+    }
+
+    /**
+     * Responds to the browse action event, the chosen folder replaces the selected ones.
+     */
+    public void doBrowseAction(TextField pathField, RepositoryTable repositoryTable, Button cleanButton) {
+        File directory = this.chooseDirectory();
+
+        if (directory == null) {
+            this.resetTextFields(pathField, repositoryTable);
+            cleanButton.setDisable(true);
+            this.selectedDirectories.clear();
+        }
+        else {
+            this.selectedDirectories.clear();
+            this.selectedDirectories.add(directory);
+            this.analyzeSelectedFolders(pathField, repositoryTable, cleanButton);
+        }
+    }
+
+    /**
+     * Responds to the add action event, the chosen folder is added to the selected ones
+     * and all of them are analyzed again together.
+     */
+    public void doAddAction(TextField pathField, RepositoryTable repositoryTable, Button cleanButton) {
+        File directory = this.chooseDirectory();
+
+        // Nothing chosen, the current selection stays as it is
+        if (directory != null) {
+            this.selectedDirectories.add(directory);
+            this.analyzeSelectedFolders(pathField, repositoryTable, cleanButton);
+        }
+    }
+
+    /**
+     * Lets the user choose a directory, starting from the last selected one.
+     * @return The chosen directory, null if none was chosen
+     */
+    private File chooseDirectory() {
+        DirectoryChooser directoryChooser = new DirectoryChooser();
+        if (!this.selectedDirectories.isEmpty()) {
+            directoryChooser.setInitialDirectory(this.selectedDirectories.get(this.selectedDirectories.size() - 1));
+        }
+        return directoryChooser.showDialog(null);
+    }
+
+    /**
+     * Resets the given TextField and table to their default values.
+     */
+    private void resetTextFields(TextField pathField, RepositoryTable repositoryTable) {
+        Objects.requireNonNull(pathField);
+        Objects.requireNonNull(repositoryTable);
+
+        pathField.setText("No folder selected");
+        repositoryTable.clear();
+    }
+
+    /**
+     * Analyzes the selected folders in a separate Thread, then inspects the object database of every found project.
+     * Found git folders are added to the table at most once per frame while the analysis is running,
+     * and cleaning can be started as soon as the first one is found.
+     * @param pathField       The path TextField to update with the directory paths
+     * @param repositoryTable The table to post the results to
+     * @param cleanButton     The clean button to disable/enable
+     */
+    private void analyzeSelectedFolders(TextField pathField,
+                                        RepositoryTable repositoryTable,
+                                        Button cleanButton) {
+        // Stops the scanning threads, cancelling the Task alone only interrupts the thread waiting for them
+        final CancellationToken cancellation = new CancellationToken();
+        if (this.analysisCancellation != null) {
+            // A previous analysis or inspection that is still running is of no use anymore
+            this.analysisCancellation.cancel();
+        }
+        this.analysisCancellation = cancellation;
+
+        final List<File> directories = List.copyOf(this.selectedDirectories);
+        pathField.setText(Utilities.joinPaths(directories));
+        repositoryTable.clear();
+        cleanButton.setDisable(true);
+
+
+        ProgressDialog dialog = new ProgressDialog();
+        dialog.setTitle("Analyzing");
+        dialog.setHeaderText("Analyzing the selected folders");
+        dialog.setContentText("Searching for Git projects in the selected folders, please wait . . .");
+        dialog.setInfinite();
+        // The main window stays usable so cleaning can start before the analysis is done
+        dialog.initModality(Modality.NONE);
+
+        // The scanning threads only record what they find, the FX thread picks it up once per frame
+        final ProgressCoalescer progress = new ProgressCoalescer(frame -> {
+            if (cancellation == this.analysisCancellation) {
+                this.showFoundFolders(frame, repositoryTable, cleanButton, dialog);
+            }
+        });
+
+        // Long analysis task
+        Task<Void> longTask = new Task<>() {
+            @Override
+            protected Void call() throws Exception {
+                final GitCleaner cleaner = new GitCleaner(directories, new ScanOptions());
+                cleaner.setAnalysisCancellationToken(cancellation);
+                cleaner.getEvents().subscribe(progress);
+                Controller.this.cleanerLogic = cleaner;
+
+                try {
+                    cleaner.analyze();
+                    // The sizes and object counts fill in the table while the user looks at it
+                    cleaner.inspectFolders();
+                }
+                finally {
+                    cleaner.getEvents().unsubscribe(progress);
+                }
+
+                //this.longTaskSimulation();
+
+                return null;
+            }
+
+            /**
+             * A long loop, for testing only.
+             * @throws InterruptedException If any thread interrupts the current thread
+             */
+            private void longTaskSimulation() throws InterruptedException {
+                int max = 100;
+                for (int i = 1; i <= max; i++) {
+                    if (this.isCancelled()) {
+                        break;
+                    }
+                    this.updateProgress(i, max);
+                    this.updateMessage("Task part " + i + " complete");
+                    System.out.println("Task part " + i + " complete");
+
+                    Thread.sleep(100);
+                }
+            }
+        };
+
+        longTask.setOnSucceeded(e -> {
+            progress.stop();
+            if (cancellation == this.analysisCancellation) {
+                cleanButton.setDisable(repositoryTable.getRowCount() == 0);
+            }
+            dialog.hide();
+        });
+
+        longTask.setOnFailed(e -> {
+            // The inspection was cancelled by a newer analysis, the found folders stay
+            progress.stop();
+            dialog.hide();
+        });
+
+        longTask.setOnCancelled(e -> {
+            progress.stop();
+            dialog.hide();
+            if (cancellation != this.analysisCancellation) {
+                return;
+            }
+            Dialogs.showAnalysisInterruptedDialog("Folder analysis cancelled by user . . .");
+
+            this.analysisCancellation = null;
+            this.resetTextFields(pathField, repositoryTable);
+            cleanButton.setDisable(true);
+            this.selectedDirectories.clear();
+            this.cleanerLogic = null;
+        });
+
+        dialog.setOnCloseRequest(e -> {
+            cancellation.cancel();
+            longTask.cancel();
+        });
+
+        dialog.show();
+        progress.start();
+
+        // The task mostly waits for directory reads, a virtual thread is enough
+        Thread.ofVirtual().name("folder-analysis").start(longTask);
+    }
+
+    /**
+     * Adds the git folders found since the last frame to the table, fills in the measured ones
+     * and updates the live count, runs on the FX thread.
+     * @param frame           The progress of the analysis since the last frame
+     * @param repositoryTable The table to add the git folders to
+     * @param cleanButton     The clean button to enable
+     * @param dialog          The analysis dialog to show the live count in
+     */
+    private void showFoundFolders(ProgressCoalescer.Frame frame,
+                                  RepositoryTable repositoryTable,
+                                  Button cleanButton,
+                                  ProgressDialog dialog) {
+        if (!frame.newFolders().isEmpty()) {
+            repositoryTable.addFolders(frame.newFolders());
+            dialog.setContentText("Found " + frame.found() + " Git projects so far, searching . . .");
+            cleanButton.setDisable(false);
+        }
+
+        for (ProgressEvent.RepositoryMeasured measured : frame.measured()) {
+            final RepositoryRow row = repositoryTable.getRow(measured.folder());
+            if (row != null) {
+                row.setMeasured(measured.gitFolderSize(), measured.stats());
+            }
+        }
+
+        if (frame.phase() == ProgressEvent.Phase.INSPECTING) {
+            // The search is done, the inspection goes on in the background
+            dialog.hide();
+        }
+    }
+
+    /**
+     * Responds to the clean action event.
+     * @param repositoryTable The table of the found git folders, only the selected ones are cleaned
+     */
+    public void doCleanAction(RepositoryTable repositoryTable) {
+        if (this.selectedDirectories.isEmpty()) {
+            // No directory has been selected yet
+            Dialogs.showNoSelectionDialog();
+        }
+        else {
+            this.runCleaner(repositoryTable);
+        }
+    }
+
+    /**
+     * Runs the cleaner logic on the selected git folders, assumes that a folder is already selected.
+     * @param repositoryTable The table of the found git folders, shows the status of each one while cleaning
+     * @throws NullPointerException If the logic is null
+     */
+    private void runCleaner(RepositoryTable repositoryTable) {
+        Objects.requireNonNull(this.cleanerLogic);
+
+        ProgressDialog dialog = new ProgressDialog();
+        dialog.setTitle("Cleaning");
+        dialog.setHeaderText("Cleaning the selected folders");
+        dialog.setContentText("Cleaning all Git projects in the selected folders, please wait . . .");
+
+        // A fresh token for every run, so the folder can be cleaned again after a cancelled run.
+        // Only the cleaning uses it, an inspection that is still running goes on
+        final CancellationToken cancellation = new CancellationToken();
+        final GitCleaner cleaner = this.cleanerLogic;
+        cleaner.setCleaningCancellationToken(cancellation);
+        cleaner.setExcludedFolders(repositoryTable.getExcludedFolders());
+
+        // The cleaning threads only record their progress, the dialog is updated once per frame on the FX thread
+        final ProgressCoalescer progress = new ProgressCoalescer(frame -> this.showCleaningProgress(
+                frame, repositoryTable, dialog
+        ));
+        cleaner.getEvents().subscribe(progress);
+
+        // Long cleanup task
+        Task<Void> longTask = new Task<>() {
+            @Override
+            protected Void call() {
+                try {
+                    cleaner.run();
+                }
+                catch (CleaningInterruptedException e) {
+                    // The cleaning process was interrupted,
+                    // no need to do anything here as it is handled by the setOnCancelled() event
+                }
+                finally {
+                    cleaner.getEvents().unsubscribe(progress);
+                }
+
+                return null;
+            }
+        };
+
+        longTask.setOnSucceeded(e -> {
+            progress.stop();
+            dialog.hide();
+            Dialogs.showCleaningSuccessfulDialog(this.cleanerLogic.getCleaningReport());
+        });
+        longTask.setOnCancelled(e -> {
+            progress.stop();
+            dialog.hide();
+            Dialogs.showCleaningInterruptedDialog("Cleaning cancelled by user . . .");
+        });
+
+        dialog.setOnCloseRequest(e -> {
+            // Kills the running git processes, cancelling the Task alone would leave them running
+            cancellation.cancel();
+            longTask.cancel();
+        });
+        dialog.show();
+        progress.start();
+
+        // The task mostly waits for git, a virtual thread is enough
+        Thread.ofVirtual().name("folder-cleaning").start(longTask);
+    }
+
+    /**
+     * Shows the cleaning progress of the last frame in the dialog and the table, runs on the FX thread.
+     * @param frame           The progress of the cleaning
+     * @param repositoryTable The table to show the status of each git folder in
+     * @param dialog          The cleaning dialog
+     */
+    private void showCleaningProgress(ProgressCoalescer.Frame frame,
+                                      RepositoryTable repositoryTable,
+                                      ProgressDialog dialog) {
+        for (File folder : frame.newStarted()) {
+            final RepositoryRow row = repositoryTable.getRow(folder);
+            if (row != null) {
+                row.setRunning();
+            }
+        }
+        for (CleaningResult result : frame.newResults()) {
+            final RepositoryRow row = repositoryTable.getRow(result.folder());
+            if (row != null) {
+                row.setResult(result);
+            }
+        }
+
+        if (frame.total() > 0) {
+            dialog.setDialogProgress((double) frame.completed() / frame.total());
+        }
+        dialog.setContentText("Cleaned " + frame.completed() + " of " + frame.total() + " Git projects, "
+                + Utilities.formatSize(frame.bytesReclaimed()) + " reclaimed so far . . .");
+    }
+}
@@ -0,0 +1,209 @@
+package com.marko19907.gitCleaner.controller;
+
+import com.marko19907.gitCleaner.model.CleaningResult;
+import com.marko19907.gitCleaner.model.ProgressEvent;
+import javafx.animation.AnimationTimer;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Collects the progress events of the scanning and cleaning threads and hands them to the FX thread
+ * at most once per frame. The publishing threads only update a few counters and queues,
+ * so a burst of events from parallel workers costs a single UI update instead of one per event.
+ */
+public class ProgressCoalescer implements Consumer<ProgressEvent> {
+
+    /**
+     * The found git folders that have not been handed to the FX thread yet.
+     */
+    private final Queue<File> foundFolders;
+
+    /**
+     * The measured git folders that have not been handed to the FX thread yet.
+     */
+    private final Queue<ProgressEvent.RepositoryMeasured> measuredFolders;
+
+    /**
+     * The git folders whose git process was started and that have not been handed to the FX thread yet.
+     */
+    private final Queue<File> startedFolders;
+
+    /**
+     * The results of the finished git folders that have not been handed to the FX thread yet.
+     */
+    private final Queue<CleaningResult> finishedResults;
+
+    /**
+     * The number of git folders found so far.
+     */
+    private final AtomicInteger found;
+
+    /**
+     * The number of git processes started so far.
+     */
+    private final AtomicInteger started;
+
+    /**
+     * The number of git folders done so far.
+     */
+    private final AtomicInteger completed;
+
+    /**
+     * The number of git folders to clean as last reported.
+     */
+    private final AtomicInteger total;
+
+    /**
+     * The number of bytes reclaimed so far.
+     */
+    private final AtomicLong bytesReclaimed;
+
+    /**
+     * The current phase, null until the first phase change.
+     */
+    private volatile ProgressEvent.Phase phase;
+
+    /**
+     * True if an event arrived since the last frame.
+     */
+    private final AtomicBoolean changed;
+
+    /**
+     * The Consumer the frames are handed to on the FX thread.
+     */
+    private final Consumer<Frame> onFrame;
+
+    /**
+     * The timer that runs once per frame on the FX thread.
+     */
+    private final AnimationTimer timer;
+
+    /**
+     * Constructor for ProgressCoalescer objects, the coalescer has to be started on the FX thread.
+     * @param onFrame The Consumer to hand the frames to on the FX thread, not null
+     * @throws IllegalArgumentException If the given Consumer is null
+     */
+    public ProgressCoalescer(Consumer<Frame> onFrame) {
+        // Guard condition
+        if (onFrame == null) {
+            throw new IllegalArgumentException("The given consumer can not be null!");
+        }
+
+        this.foundFolders = new ConcurrentLinkedQueue<>();
+        this.measuredFolders = new ConcurrentLinkedQueue<>();
+        this.startedFolders = new ConcurrentLinkedQueue<>();
+        this.finishedResults = new ConcurrentLinkedQueue<>();
+        this.found = new AtomicInteger();
+        this.started = new AtomicInteger();
+        this.completed = new AtomicInteger();
+        this.total = new AtomicInteger();
+        this.bytesReclaimed = new AtomicLong();
+        this.phase = null;
+        this.changed = new AtomicBoolean(false);
+        this.onFrame = onFrame;
+        this.timer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                ProgressCoalescer.this.flush();
+            }
+        };
+    }
+
+    /**
+     * Records the given event, safe to call from any thread.
+     * @param event The event to record
+     */
+    @Override
+    public void accept(ProgressEvent event) {
+        switch (event) {
+            case ProgressEvent.PhaseChanged changedPhase -> this.phase = changedPhase.phase();
+            case ProgressEvent.RepositoryFound repository -> {
+                this.foundFolders.add(repository.folder());
+                this.found.accumulateAndGet(repository.found(), Math::max);
+            }
+            case ProgressEvent.RepositoryMeasured measured -> this.measuredFolders.add(measured);
+            case ProgressEvent.RepositoryStarted repository -> {
+                this.startedFolders.add(repository.folder());
+                this.started.incrementAndGet();
+            }
+            case ProgressEvent.BytesReclaimed reclaimed -> this.bytesReclaimed.addAndGet(reclaimed.bytes());
+            case ProgressEvent.RepositoryFinished finished -> {
+                this.finishedResults.add(finished.result());
+                this.completed.accumulateAndGet(finished.completed(), Math::max);
+                this.total.accumulateAndGet(finished.total(), Math::max);
+            }
+        }
+        this.changed.set(true);
+    }
+
+    /**
+     * Starts handing frames to the FX thread, must be called on the FX thread.
+     */
+    public void start() {
+        this.timer.start();
+    }
+
+    /**
+     * Hands the last changes over right away and stops the frames, must be called on the FX thread.
+     */
+    public void stop() {
+        this.timer.stop();
+        this.flush();
+    }
+
+    /**
+     * Hands a frame to the Consumer if anything changed since the last one.
+     */
+    private void flush() {
+        if (!this.changed.getAndSet(false)) {
+            return;
+        }
+
+        this.onFrame.accept(new Frame(this.phase, drain(this.foundFolders), drain(this.measuredFolders),
+                drain(this.startedFolders), drain(this.finishedResults), this.found.get(), this.started.get(),
+                this.completed.get(), this.total.get() > 0 ? this.total.get() : this.found.get(),
+                this.bytesReclaimed.get()));
+    }
+
+    /**
+     * Takes everything out of the given queue.
+     * @param queue The queue to drain
+     * @param <T>   The type of the elements
+     * @return The elements in the order they were added
+     */
+    private static <T> List<T> drain(Queue<T> queue) {
+        final List<T> elements = new ArrayList<>();
+        T element;
+        while ((element = queue.poll()) != null) {
+            elements.add(element);
+        }
+        return elements;
+    }
+
+    /**
+     * The progress handed to the FX thread in a single frame.
+     * @param phase          The current phase, null until the first phase change
+     * @param newFolders     The git folders found since the previous frame
+     * @param measured       The git folders measured since the previous frame
+     * @param newStarted     The git folders whose git process was started since the previous frame
+     * @param newResults     The results of the git folders finished since the previous frame
+     * @param found          The number of git folders found so far
+     * @param started        The number of git processes started so far
+     * @param completed      The number of git folders done so far
+     * @param total          The number of git folders to clean
+     * @param bytesReclaimed The number of bytes reclaimed so far
+     */
+    public record Frame(ProgressEvent.Phase phase, List<File> newFolders,
+                        List<ProgressEvent.RepositoryMeasured> measured, List<File> newStarted,
+                        List<CleaningResult> newResults, int found, int started, int completed, int total,
+                        long bytesReclaimed) {
+    }
+}
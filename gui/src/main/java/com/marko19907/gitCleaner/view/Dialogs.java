@@ -1,6 +1,5 @@
 package com.marko19907.gitCleaner.view;
 
-import com.marko19907.gitCleaner.utilities.Utilities;
 import javafx.scene.control.Alert;
 
 /**
@@ -19,7 +18,7 @@ public class Dialogs {
      */
     public static void showNoSelectionDialog() {
         Alert alert = new Alert(Alert.AlertType.INFORMATION);
-        Utilities.addIconToDialog(alert);
+        Icons.addIconToDialog(alert);
         alert.setTitle("No selection");
         alert.setHeaderText("No selection was made");
         alert.setContentText("Click the browse button to select a folder to clean first");
@@ -32,7 +31,7 @@ public class Dialogs {
      */
     public static void showCleaningInterruptedDialog(String reason) {
         Alert alert = new Alert(Alert.AlertType.ERROR);
-        Utilities.addIconToDialog(alert);
+        Icons.addIconToDialog(alert);
         alert.setTitle("Cleaning interrupted");
         alert.setHeaderText("The cleaning process was interrupted!");
         alert.setContentText("Reason: " + reason);
@@ -45,7 +44,7 @@ public class Dialogs {
      */
     public static void showAnalysisInterruptedDialog(String reason) {
         Alert alert = new Alert(Alert.AlertType.ERROR);
-        Utilities.addIconToDialog(alert);
+        Icons.addIconToDialog(alert);
         alert.setTitle("Analysis interrupted");
         alert.setHeaderText("The analysis process was interrupted!");
         alert.setContentText("Reason: " + reason);
@@ -58,7 +57,7 @@ public class Dialogs {
      */
     public static void showCleaningSuccessfulDialog(String report) {
         Alert alert = new Alert(Alert.AlertType.INFORMATION);
-        Utilities.addIconToDialog(alert);
+        Icons.addIconToDialog(alert);
         alert.setTitle("Completed");
         alert.setHeaderText("The cleaning process was completed!");
         alert.setContentText("Cleaning done!" + "\n" + "\n" + report);
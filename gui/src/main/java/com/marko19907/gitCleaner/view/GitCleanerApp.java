@@ -1,13 +1,11 @@
 package com.marko19907.gitCleaner.view;
 
 import com.marko19907.gitCleaner.controller.Controller;
-import com.marko19907.gitCleaner.utilities.Utilities;
 import javafx.application.Application;
 import javafx.geometry.Insets;
 import javafx.scene.Node;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
-import javafx.scene.control.TextArea;
 import javafx.scene.control.TextField;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.HBox;
@@ -44,9 +42,14 @@ public class GitCleanerApp extends Application {
     private final TextField pathField;
 
     /**
-     * The git folders TextArea, used to display the path to all git projects found in the selected path.
+     * The table of all git projects found in the selected path.
      */
-    private final TextArea gitFoldersTextArea;
+    private final RepositoryTable repositoryTable;
+
+    /**
+     * The filter TextField, narrows the table down to the paths that contain its text.
+     */
+    private final TextField filterField;
 
     /**
      * The clean button.
@@ -69,22 +72,23 @@ public class GitCleanerApp extends Application {
 
         this.root = new BorderPane();
         this.pathField = new TextField();
-        this.gitFoldersTextArea = new TextArea();
+        this.repositoryTable = new RepositoryTable();
+        this.filterField = new TextField();
         this.cleanButton = new Button("Clean");
     }
 
     @Override
     public void start(Stage primaryStage) {
         primaryStage.setTitle("Git Cleaner");
-        primaryStage.getIcons().add(Utilities.getIcon());
-        primaryStage.setMinWidth(400);
-        primaryStage.setMinHeight(300);
+        primaryStage.getIcons().add(Icons.getIcon());
+        primaryStage.setMinWidth(600);
+        primaryStage.setMinHeight(400);
 
         Node center = this.buildCenter();
         BorderPane.setMargin(center, new Insets(10));
         this.root.setCenter(center);
 
-        Scene scene = new Scene(this.root, 400, 300, Color.WHITE);
+        Scene scene = new Scene(this.root, 900, 500, Color.WHITE);
         primaryStage.setScene(scene);
         primaryStage.show();
 
@@ -98,7 +102,7 @@ public class GitCleanerApp extends Application {
         VBox vBox = new VBox();
         vBox.setSpacing(2);
 
-        Text text = new Text("Select a folder");
+        Text text = new Text("Select one or more folders");
         text.setStyle("-fx-font: 14 arial;");
 
         HBox browseBox = this.buildBrowseBox();
@@ -106,19 +110,43 @@ public class GitCleanerApp extends Application {
         Region spacer = new Region();
         spacer.setMinHeight(10);
 
+        HBox tableBox = this.buildTableBox();
+
+        VBox.setVgrow(this.repositoryTable, Priority.ALWAYS);
+
+        vBox.getChildren().addAll(text, browseBox, spacer, tableBox, this.repositoryTable);
+        return vBox;
+    }
+
+    /**
+     * Builds the HBox for the clean Button, the filter TextField and the selection Buttons.
+     */
+    private HBox buildTableBox() {
+        HBox hBox = new HBox();
+        hBox.setSpacing(2);
+
         this.cleanButton.setDisable(true);
-        this.cleanButton.setOnAction(e -> this.controller.doCleanAction());
+        this.cleanButton.setOnAction(e -> this.controller.doCleanAction(this.repositoryTable));
         this.cleanButton.setMinWidth(CLEAN_BUTTON_WIDTH);
 
-        this.gitFoldersTextArea.setEditable(false);
-        VBox.setVgrow(this.gitFoldersTextArea, Priority.ALWAYS);
+        this.filterField.setPromptText("Filter by path");
+        this.filterField.textProperty().addListener((observable, oldText, newText) ->
+                this.repositoryTable.setFilter(newText)
+        );
+        HBox.setHgrow(this.filterField, Priority.ALWAYS);
 
-        vBox.getChildren().addAll(text, browseBox, spacer, this.cleanButton, this.gitFoldersTextArea);
-        return vBox;
+        Button selectAllButton = new Button("Select all");
+        selectAllButton.setOnAction(e -> this.repositoryTable.setAllSelected(true));
+
+        Button selectNoneButton = new Button("Select none");
+        selectNoneButton.setOnAction(e -> this.repositoryTable.setAllSelected(false));
+
+        hBox.getChildren().addAll(this.cleanButton, this.filterField, selectAllButton, selectNoneButton);
+        return hBox;
     }
 
     /**
-     * Builds the HBox for the path TextField and the browse Button.
+     * Builds the HBox for the path TextField, the browse Button and the add Button.
      */
     private HBox buildBrowseBox() {
         HBox hBox = new HBox();
@@ -129,10 +157,15 @@ public class GitCleanerApp extends Application {
 
         Button browseButton = new Button("Browse");
         browseButton.setOnAction(e ->
-                this.controller.doBrowseAction(this.pathField, this.gitFoldersTextArea, this.cleanButton)
+                this.controller.doBrowseAction(this.pathField, this.repositoryTable, this.cleanButton)
+        );
+
+        Button addButton = new Button("Add");
+        addButton.setOnAction(e ->
+                this.controller.doAddAction(this.pathField, this.repositoryTable, this.cleanButton)
         );
 
-        hBox.getChildren().addAll(this.pathField, browseButton);
+        hBox.getChildren().addAll(this.pathField, browseButton, addButton);
         return hBox;
     }
 }
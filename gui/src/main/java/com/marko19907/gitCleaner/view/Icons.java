@@ -0,0 +1,44 @@
+package com.marko19907.gitCleaner.view;
+
+import javafx.scene.control.Dialog;
+import javafx.scene.image.Image;
+import javafx.stage.Stage;
+
+import java.util.Objects;
+
+/**
+ * Holds the program's icon, kept apart from the model utilities so that only the UI loads JavaFX.
+ */
+public class Icons {
+
+    /**
+     * The program's icon.
+     */
+    private static final Image ICON = new Image(
+            Objects.requireNonNull(Icons.class.getResourceAsStream("/icon.png"))
+    );
+
+    /**
+     * Private constructor.
+     */
+    private Icons() {
+    }
+
+    /**
+     * Returns the program's icon.
+     */
+    public static Image getIcon() {
+        return ICON;
+    }
+
+    /**
+     * Adds an icon to the title bar of the given Dialog.
+     * @param dialog The dialog to set the icon to, not null
+     */
+    public static void addIconToDialog(Dialog<?> dialog) {
+        if (dialog != null) {
+            Stage stage = (Stage) dialog.getDialogPane().getScene().getWindow();
+            stage.getIcons().add(Icons.getIcon());
+        }
+    }
+}
@@ -1,6 +1,5 @@
 package com.marko19907.gitCleaner.view;
 
-import com.marko19907.gitCleaner.utilities.Utilities;
 import javafx.application.Platform;
 import javafx.geometry.Pos;
 import javafx.scene.control.ButtonType;
@@ -36,7 +35,7 @@ public class ProgressDialog extends Dialog<Boolean> {
     public ProgressDialog(double progress) {
         final DialogPane dialogPane = this.getDialogPane();
         Stage stage = (Stage) dialogPane.getScene().getWindow();
-        stage.getIcons().add(Utilities.getIcon());
+        stage.getIcons().add(Icons.getIcon());
 
         this.vbox = new VBox();
         this.vbox.setFillWidth(true);
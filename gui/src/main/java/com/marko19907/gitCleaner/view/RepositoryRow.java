@@ -0,0 +1,195 @@
+package com.marko19907.gitCleaner.view;
+
+import com.marko19907.gitCleaner.model.CleaningResult;
+import com.marko19907.gitCleaner.model.RepositoryStats;
+import javafx.beans.Observable;
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.LongProperty;
+import javafx.beans.property.ObjectProperty;
+import javafx.beans.property.SimpleBooleanProperty;
+import javafx.beans.property.SimpleLongProperty;
+import javafx.beans.property.SimpleObjectProperty;
+import javafx.beans.property.SimpleStringProperty;
+import javafx.beans.property.StringProperty;
+
+import java.io.File;
+import java.time.Instant;
+import java.util.Locale;
+
+/**
+ * A single git project shown in the {@link RepositoryTable}, every column is an observable property.
+ * Rows are only changed on the FX thread.
+ */
+public class RepositoryRow {
+
+    /**
+     * Marks a number that is not known yet, the reclaimed bytes may be negative so it is not -1.
+     */
+    public static final long UNKNOWN = Long.MIN_VALUE;
+
+    /**
+     * The git project folder.
+     */
+    private final File folder;
+
+    /**
+     * The absolute path of the git project folder.
+     */
+    private final String path;
+
+    /**
+     * The size of the .git folder in bytes, {@link #UNKNOWN} until measured.
+     */
+    private final LongProperty gitFolderSize;
+
+    /**
+     * The number of loose objects, {@link #UNKNOWN} until inspected.
+     */
+    private final LongProperty looseObjects;
+
+    /**
+     * The time of the last repack, null if never packed or not inspected yet.
+     */
+    private final ObjectProperty<Instant> lastGcTime;
+
+    /**
+     * The cleaning status shown to the user.
+     */
+    private final StringProperty status;
+
+    /**
+     * The number of bytes reclaimed by cleaning, {@link #UNKNOWN} until cleaned.
+     */
+    private final LongProperty reclaimed;
+
+    /**
+     * True if the project should be cleaned.
+     */
+    private final BooleanProperty selected;
+
+    /**
+     * Constructor for RepositoryRow objects, the row is selected and nothing about it is known yet.
+     * @param folder The git project folder, not null
+     * @throws IllegalArgumentException If the given folder is null
+     */
+    public RepositoryRow(File folder) {
+        // Guard condition
+        if (folder == null) {
+            throw new IllegalArgumentException("The given folder can not be null!");
+        }
+
+        this.folder = folder;
+        this.path = folder.getAbsolutePath();
+        this.gitFolderSize = new SimpleLongProperty(UNKNOWN);
+        this.looseObjects = new SimpleLongProperty(UNKNOWN);
+        this.lastGcTime = new SimpleObjectProperty<>(null);
+        this.status = new SimpleStringProperty("Found");
+        this.reclaimed = new SimpleLongProperty(UNKNOWN);
+        this.selected = new SimpleBooleanProperty(true);
+    }
+
+    /**
+     * Returns the properties a sorted or filtered list has to watch, for use as a list extractor.
+     * The selection is left out, ticking a checkbox should not move the row.
+     * @param row The row
+     */
+    public static Observable[] extract(RepositoryRow row) {
+        return new Observable[] {row.gitFolderSize, row.looseObjects, row.lastGcTime, row.status, row.reclaimed};
+    }
+
+    /**
+     * Shows the size and the object database statistics of the project, the size is kept once it was cleaned.
+     * @param gitFolderSize The size of the .git folder in bytes
+     * @param stats         The object database statistics, null if they could not be read
+     */
+    public void setMeasured(long gitFolderSize, RepositoryStats stats) {
+        if (this.reclaimed.get() == UNKNOWN) {
+            this.gitFolderSize.set(gitFolderSize);
+        }
+        if (stats != null) {
+            this.looseObjects.set(stats.getLooseObjects());
+            this.lastGcTime.set(stats.getLastGcTime());
+        }
+    }
+
+    /**
+     * Marks the project as being cleaned right now.
+     */
+    public void setRunning() {
+        this.status.set("Running");
+    }
+
+    /**
+     * Shows the result of cleaning the project.
+     * @param result The result, not null
+     */
+    public void setResult(CleaningResult result) {
+        final String name = result.status().name().replace('_', ' ').toLowerCase(Locale.ROOT);
+        this.status.set(Character.toUpperCase(name.charAt(0)) + name.substring(1));
+        this.gitFolderSize.set(result.sizeAfter());
+        this.reclaimed.set(result.bytesReclaimed());
+    }
+
+    /**
+     * Returns the git project folder.
+     */
+    public File getFolder() {
+        return this.folder;
+    }
+
+    /**
+     * Returns the absolute path of the git project folder.
+     */
+    public String getPath() {
+        return this.path;
+    }
+
+    /**
+     * Returns the size of the .git folder in bytes.
+     */
+    public LongProperty gitFolderSizeProperty() {
+        return this.gitFolderSize;
+    }
+
+    /**
+     * Returns the number of loose objects.
+     */
+    public LongProperty looseObjectsProperty() {
+        return this.looseObjects;
+    }
+
+    /**
+     * Returns the time of the last repack.
+     */
+    public ObjectProperty<Instant> lastGcTimeProperty() {
+        return this.lastGcTime;
+    }
+
+    /**
+     * Returns the cleaning status.
+     */
+    public StringProperty statusProperty() {
+        return this.status;
+    }
+
+    /**
+     * Returns the number of bytes reclaimed by cleaning.
+     */
+    public LongProperty reclaimedProperty() {
+        return this.reclaimed;
+    }
+
+    /**
+     * Returns the selection of the project for cleaning.
+     */
+    public BooleanProperty selectedProperty() {
+        return this.selected;
+    }
+
+    /**
+     * Returns true if the project should be cleaned.
+     */
+    public boolean isSelected() {
+        return this.selected.get();
+    }
+}
@@ -0,0 +1,217 @@
+package com.marko19907.gitCleaner.view;
+
+import com.marko19907.gitCleaner.utilities.Utilities;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.FilteredList;
+import javafx.collections.transformation.SortedList;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableCell;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.control.cell.CheckBoxTableCell;
+
+import java.io.File;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * A table of the found git projects that can be sorted by any column, filtered by path
+ * and lets the user pick which projects to clean. The table is virtualized, only the visible rows
+ * have cells, so it stays responsive with tens of thousands of projects. Only used on the FX thread.
+ */
+public class RepositoryTable extends TableView<RepositoryRow> {
+
+    /**
+     * The height of a single row, a fixed height spares the table from measuring every row.
+     */
+    private static final double ROW_HEIGHT = 24;
+
+    /**
+     * The format of the last repack time.
+     */
+    private static final DateTimeFormatter GC_TIME_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm", Locale.ROOT).withZone(ZoneId.systemDefault());
+
+    /**
+     * All rows in the order they were found, watched for changes of the sorted and filtered columns.
+     */
+    private final ObservableList<RepositoryRow> rows;
+
+    /**
+     * The rows that match the filter.
+     */
+    private final FilteredList<RepositoryRow> filteredRows;
+
+    /**
+     * The rows, keyed by the git project folder.
+     */
+    private final Map<File, RepositoryRow> rowsByFolder;
+
+    /**
+     * Creates an empty table.
+     */
+    public RepositoryTable() {
+        this.rows = FXCollections.observableArrayList(RepositoryRow::extract);
+        this.filteredRows = new FilteredList<>(this.rows);
+        this.rowsByFolder = new HashMap<>();
+
+        final SortedList<RepositoryRow> sortedRows = new SortedList<>(this.filteredRows);
+        sortedRows.comparatorProperty().bind(this.comparatorProperty());
+        this.setItems(sortedRows);
+
+        this.setEditable(true);
+        this.setFixedCellSize(ROW_HEIGHT);
+        this.setPlaceholder(new Label("No git folders found"));
+        this.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+        this.buildColumns();
+    }
+
+    /**
+     * Builds the columns of the table.
+     */
+    private void buildColumns() {
+        final TableColumn<RepositoryRow, Boolean> selectedColumn = new TableColumn<>("Clean");
+        selectedColumn.setCellValueFactory(cell -> cell.getValue().selectedProperty());
+        selectedColumn.setCellFactory(CheckBoxTableCell.forTableColumn(selectedColumn));
+        selectedColumn.setEditable(true);
+        selectedColumn.setMinWidth(50);
+        selectedColumn.setMaxWidth(60);
+
+        final TableColumn<RepositoryRow, String> pathColumn = new TableColumn<>("Path");
+        pathColumn.setCellValueFactory(cell -> new ReadOnlyObjectWrapper<>(cell.getValue().getPath()));
+        pathColumn.setPrefWidth(360);
+
+        final TableColumn<RepositoryRow, Number> sizeColumn = new TableColumn<>(".git size");
+        sizeColumn.setCellValueFactory(cell -> cell.getValue().gitFolderSizeProperty());
+        sizeColumn.setCellFactory(column -> formattedCell(value -> Utilities.formatSize(value.longValue())));
+
+        final TableColumn<RepositoryRow, Number> looseColumn = new TableColumn<>("Loose objects");
+        looseColumn.setCellValueFactory(cell -> cell.getValue().looseObjectsProperty());
+        looseColumn.setCellFactory(column -> formattedCell(value -> Long.toString(value.longValue())));
+
+        final TableColumn<RepositoryRow, Instant> gcColumn = new TableColumn<>("Last gc");
+        gcColumn.setCellValueFactory(cell -> cell.getValue().lastGcTimeProperty());
+        gcColumn.setCellFactory(column -> formattedCell(GC_TIME_FORMAT::format));
+
+        final TableColumn<RepositoryRow, String> statusColumn = new TableColumn<>("Status");
+        statusColumn.setCellValueFactory(cell -> cell.getValue().statusProperty());
+
+        final TableColumn<RepositoryRow, Number> reclaimedColumn = new TableColumn<>("Reclaimed");
+        reclaimedColumn.setCellValueFactory(cell -> cell.getValue().reclaimedProperty());
+        reclaimedColumn.setCellFactory(column -> formattedCell(value -> Utilities.formatSize(value.longValue())));
+
+        this.getColumns().add(selectedColumn);
+        this.getColumns().add(pathColumn);
+        this.getColumns().add(sizeColumn);
+        this.getColumns().add(looseColumn);
+        this.getColumns().add(gcColumn);
+        this.getColumns().add(statusColumn);
+        this.getColumns().add(reclaimedColumn);
+    }
+
+    /**
+     * Returns a cell that shows its value with the given formatter, empty if the value is not known.
+     * @param formatter The formatter of the known values
+     * @param <T>       The type of the values
+     */
+    private static <T> TableCell<RepositoryRow, T> formattedCell(Function<T, String> formatter) {
+        return new TableCell<>() {
+            @Override
+            protected void updateItem(T item, boolean empty) {
+                super.updateItem(item, empty);
+                final boolean unknown = item == null
+                        || (item instanceof Number number && number.longValue() == RepositoryRow.UNKNOWN);
+                this.setText(empty || unknown ? null : formatter.apply(item));
+            }
+        };
+    }
+
+    /**
+     * Adds a row for each of the given git project folders that is not in the table yet.
+     * @param folders The git project folders to add
+     */
+    public void addFolders(List<File> folders) {
+        final List<RepositoryRow> added = new ArrayList<>(folders.size());
+        for (File folder : folders) {
+            if (!this.rowsByFolder.containsKey(folder)) {
+                final RepositoryRow row = new RepositoryRow(folder);
+                this.rowsByFolder.put(folder, row);
+                added.add(row);
+            }
+        }
+        // A single change for the whole batch, the sorted and filtered views are updated once
+        this.rows.addAll(added);
+    }
+
+    /**
+     * Returns the row of the given git project folder, null if it is not in the table.
+     * @param folder The git project folder
+     */
+    public RepositoryRow getRow(File folder) {
+        return this.rowsByFolder.get(folder);
+    }
+
+    /**
+     * Returns the number of rows, including the ones hidden by the filter.
+     */
+    public int getRowCount() {
+        return this.rows.size();
+    }
+
+    /**
+     * Removes every row and the filter.
+     */
+    public void clear() {
+        this.rows.clear();
+        this.rowsByFolder.clear();
+        this.filteredRows.setPredicate(null);
+    }
+
+    /**
+     * Shows only the rows whose path contains the given text, ignoring case.
+     * @param text The text to look for, null or blank to show every row
+     */
+    public void setFilter(String text) {
+        if (text == null || text.isBlank()) {
+            this.filteredRows.setPredicate(null);
+            return;
+        }
+
+        final String needle = text.strip().toLowerCase(Locale.ROOT);
+        this.filteredRows.setPredicate(row -> row.getPath().toLowerCase(Locale.ROOT).contains(needle));
+    }
+
+    /**
+     * Selects or deselects every row that matches the filter.
+     * @param selected True to select the rows, false to deselect them
+     */
+    public void setAllSelected(boolean selected) {
+        for (RepositoryRow row : this.filteredRows) {
+            row.selectedProperty().set(selected);
+        }
+    }
+
+    /**
+     * Returns the git project folders the user deselected, including the ones hidden by the filter.
+     */
+    public Set<File> getExcludedFolders() {
+        final Set<File> excluded = new HashSet<>();
+        for (RepositoryRow row : this.rows) {
+            if (!row.isSelected()) {
+                excluded.add(row.getFolder());
+            }
+        }
+        return excluded;
+    }
+}
@@ -1,5 +1,6 @@
-module gitCleaner {
+module gitCleaner.gui {
+    requires gitCleaner.core;
     requires javafx.controls;
 
     exports com.marko19907.gitCleaner.view;
-}
\ No newline at end of file
+}